@@ -0,0 +1,75 @@
+package com.syntaxvault.benchmark;
+
+import com.syntaxvault.model.ContentCodec;
+import org.openjdk.jmh.annotations.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read and write overhead of compressed snippet content against the bytes it
+ * saves.
+ *
+ * plainEncode is what storing the content as TEXT costs on the way to the
+ * driver; compress and decompress are the extra work per write and per first
+ * read of a compressed row. The stored size of each input is printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContentCompressionBenchmark {
+
+    @Param({"LOG", "SQL", "SOURCE"})
+    public String kind;
+
+    @Param({"16384", "262144"})
+    public int size;
+
+    private String content;
+    private byte[] compressed;
+
+    @Setup
+    public void setUp() {
+        content = generate(kind, size, new Random(42));
+        compressed = ContentCodec.DEFLATE.compress(content);
+        int raw = content.getBytes(StandardCharsets.UTF_8).length;
+        System.out.printf("%n%s %d: %d bytes stored as %d (%.1f%% saved)%n",
+            kind, size, raw, compressed.length, 100.0 * (raw - compressed.length) / raw);
+    }
+
+    @Benchmark
+    public byte[] plainEncode() {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return ContentCodec.DEFLATE.compress(content);
+    }
+
+    @Benchmark
+    public String decompress() {
+        return ContentCodec.DEFLATE.decompress(compressed);
+    }
+
+    private static String generate(String kind, int size, Random random) {
+        StringBuilder sb = new StringBuilder(size + 256);
+        int i = 0;
+        while (sb.length() < size) {
+            switch (kind) {
+                case "LOG" -> sb.append(String.format("2024-05-%02d 12:%02d:%02d.%03d INFO [worker-%d] GET /api/snippets/%d 200 %dms%n",
+                    1 + random.nextInt(28), random.nextInt(60), random.nextInt(60), random.nextInt(1000),
+                    random.nextInt(16), random.nextInt(100_000), random.nextInt(500)));
+                case "SQL" -> sb.append(String.format("INSERT INTO events (id, user_id, kind, payload) VALUES (%d, %d, '%s', '{\"v\": %d}');%n",
+                    i, random.nextInt(5000), random.nextBoolean() ? "click" : "view", random.nextInt()));
+                default -> sb.append(String.format("    public int method%d(int value) {%n        return value * %d + helper%d(value);%n    }%n%n",
+                    i, random.nextInt(100), random.nextInt(50)));
+            }
+            i++;
+        }
+        return sb.substring(0, size);
+    }
+}
@@ -0,0 +1,91 @@
+package com.syntaxvault.benchmark;
+
+import com.syntaxvault.search.MinHash;
+import com.syntaxvault.search.SnippetDuplicateIndex;
+import org.openjdk.jmh.annotations.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Near-duplicate lookup for one snippet among unrelated snippets of 80 random
+ * tokens, ten of which are edited copies of the probe.
+ *
+ * lshLookup reads the probe's band buckets, linearScan compares the probe's
+ * signature with every stored one, and signature is the cost added to each
+ * snippet write.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class DuplicateLookupBenchmark {
+
+    private static final int TOKENS = 80;
+    private static final int VOCABULARY = 20_000;
+    private static final int COPIES = 10;
+
+    @Param({"10000", "100000", "500000"})
+    public int snippets;
+
+    private SnippetDuplicateIndex index;
+    private List<int[]> signatures;
+    private String probeContent;
+    private int[] probe;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new SnippetDuplicateIndex();
+        signatures = new ArrayList<>(snippets);
+        String[] probeTokens = tokens(random);
+        probeContent = String.join(" ", probeTokens);
+        probe = MinHash.signature(probeContent);
+        for (int id = 1; id <= snippets; id++) {
+            String[] tokens = id % (snippets / COPIES) == 0 ? edit(probeTokens, random) : tokens(random);
+            int[] signature = MinHash.signature(String.join(" ", tokens));
+            signatures.add(signature);
+            index.index(id, id % 100, true, signature);
+        }
+    }
+
+    @Benchmark
+    public List<SnippetDuplicateIndex.Match> lshLookup() {
+        return index.findSimilar(probe, 0, 0.7, 1, 20);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int matches = 0;
+        for (int[] signature : signatures) {
+            if (MinHash.similarity(probe, signature) >= 0.7) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int[] signature() {
+        return MinHash.signature(probeContent);
+    }
+
+    private static String[] tokens(Random random) {
+        String[] tokens = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = "word" + random.nextInt(VOCABULARY);
+        }
+        return tokens;
+    }
+
+    // Replaces two tokens, which leaves about 85% of the shingles in common
+    private static String[] edit(String[] tokens, Random random) {
+        String[] copy = tokens.clone();
+        copy[random.nextInt(TOKENS)] = "edited" + random.nextInt(VOCABULARY);
+        copy[random.nextInt(TOKENS)] = "edited" + random.nextInt(VOCABULARY);
+        return copy;
+    }
+}
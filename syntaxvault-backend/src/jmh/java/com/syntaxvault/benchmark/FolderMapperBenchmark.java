@@ -0,0 +1,39 @@
+package com.syntaxvault.benchmark;
+
+import com.syntaxvault.dto.FolderDTO;
+import com.syntaxvault.mapper.FolderMapper;
+import com.syntaxvault.model.Folder;
+import com.syntaxvault.model.User;
+import org.openjdk.jmh.annotations.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FolderMapper.toDTO on a complete folder tree with fanout 4 and five
+ * snippets per folder: depth 3 is 85 folders, depth 6 is 5,461.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FolderMapperBenchmark {
+
+    @Param({"3", "6"})
+    public int depth;
+
+    private FolderMapper mapper;
+    private Folder root;
+
+    @Setup
+    public void setUp() {
+        mapper = new FolderMapper();
+        User user = SyntheticData.users(1).get(0);
+        root = SyntheticData.folderTree(depth, 4, 5, user);
+    }
+
+    @Benchmark
+    public FolderDTO toDTO() {
+        return mapper.toDTO(root);
+    }
+}
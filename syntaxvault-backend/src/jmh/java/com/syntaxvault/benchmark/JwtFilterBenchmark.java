@@ -0,0 +1,86 @@
+package com.syntaxvault.benchmark;
+
+import com.syntaxvault.config.JwtConfig;
+import com.syntaxvault.filter.JwtRequestFilter;
+import com.syntaxvault.service.UserService;
+import com.syntaxvault.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JWT authentication in JwtRequestFilter.
+ *
+ * filterCachedToken is the steady state of a client reusing its token;
+ * verifyUncached is the first request with a token; legacyTriplePass
+ * reproduces the previous filter, which rebuilt the key and parser and
+ * verified the token three times per request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret";
+
+    private JwtUtil jwtUtil;
+    private JwtRequestFilter filter;
+    private String token;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() {
+        JwtConfig config = new JwtConfig();
+        config.setSecret(SECRET);
+        config.setExpiration(TimeUnit.HOURS.toMillis(1));
+        jwtUtil = new JwtUtil(config);
+
+        // The token carries id and roles, so the filter never reaches the user lookup
+        filter = new JwtRequestFilter(new UserService(null, null), jwtUtil);
+        token = jwtUtil.generateToken(1L, "bench-user", List.of("ROLE_USER"));
+        chain = (request, response) -> { };
+    }
+
+    @Benchmark
+    public Object filterCachedToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/snippets");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Benchmark
+    public JwtUtil.VerifiedToken verifyUncached() {
+        return jwtUtil.parse(token);
+    }
+
+    @Benchmark
+    public boolean legacyTriplePass() {
+        String username = legacyClaims().getSubject();
+        boolean sameUser = legacyClaims().getSubject().equals(username);
+        return sameUser && !legacyClaims().getExpiration().before(new Date());
+    }
+
+    private Claims legacyClaims() {
+        return Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+}
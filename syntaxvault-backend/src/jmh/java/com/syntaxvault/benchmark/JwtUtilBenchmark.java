@@ -0,0 +1,43 @@
+package com.syntaxvault.benchmark;
+
+import com.syntaxvault.config.JwtConfig;
+import com.syntaxvault.util.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue on login and username extraction. extractUsername parses and
+ * verifies the signature on every call; the cached path used by the request
+ * filter is measured by JwtFilterBenchmark.filterCachedToken.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtConfig config = new JwtConfig();
+        config.setSecret("benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret");
+        config.setExpiration(TimeUnit.HOURS.toMillis(1));
+        jwtUtil = new JwtUtil(config);
+        token = jwtUtil.generateToken(1L, "bench-user", List.of("ROLE_USER"));
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(1L, "bench-user", List.of("ROLE_USER"));
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtUtil.extractUsername(token);
+    }
+}
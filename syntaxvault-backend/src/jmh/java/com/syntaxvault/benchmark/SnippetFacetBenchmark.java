@@ -0,0 +1,58 @@
+package com.syntaxvault.benchmark;
+
+import com.syntaxvault.search.SnippetFacetIndex;
+import org.openjdk.jmh.annotations.*;
+import org.roaringbitmap.RoaringBitmap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Facet counts over 2,000,000 snippets in 8 languages carrying 3 of 300 tags.
+ *
+ * The match ratio sets how many snippets the search matched. Up to about
+ * 10% the index walks the matches; above that it intersects bitmaps, one
+ * cardinality per language and tag.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SnippetFacetBenchmark {
+
+    private static final int SNIPPETS = 2_000_000;
+    private static final int TAGS = 300;
+
+    @Param({"0.0001", "0.01", "0.1", "0.5"})
+    public double matchRatio;
+
+    private SnippetFacetIndex index;
+    private RoaringBitmap matches;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new SnippetFacetIndex();
+        matches = new RoaringBitmap();
+        for (int id = 1; id <= SNIPPETS; id++) {
+            Map<Long, String> tags = new HashMap<>();
+            while (tags.size() < 3) {
+                long tagId = 1 + random.nextInt(TAGS);
+                tags.put(tagId, "tag-" + tagId);
+            }
+            index.index(id, SyntheticData.LANGUAGES[random.nextInt(SyntheticData.LANGUAGES.length)], tags);
+            if (random.nextDouble() < matchRatio) {
+                matches.add(id);
+            }
+        }
+        matches.runOptimize();
+    }
+
+    @Benchmark
+    public SnippetFacetIndex.Facets facets() {
+        return index.facets(matches, 10);
+    }
+}
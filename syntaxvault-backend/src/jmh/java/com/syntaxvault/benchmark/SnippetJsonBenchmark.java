@@ -0,0 +1,47 @@
+package com.syntaxvault.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syntaxvault.dto.SnippetDTO;
+import com.syntaxvault.mapper.SnippetMapper;
+import com.syntaxvault.mapper.TagMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Jackson serialization of SnippetDTO lists with the ObjectMapper settings
+ * Spring Boot applies (ISO dates, no timestamps), as written by the list
+ * endpoints.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnippetJsonBenchmark {
+
+    @Param({"50", "2000"})
+    public int snippets;
+
+    private ObjectMapper objectMapper;
+    private List<SnippetDTO> dtos;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        SnippetMapper mapper = new SnippetMapper(new TagMapper());
+        dtos = SyntheticData.snippets(snippets, SyntheticData.users(20), SyntheticData.tags(300), new Random(42))
+            .stream()
+            .map(mapper::toDTO)
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public byte[] writeList() throws Exception {
+        return objectMapper.writeValueAsBytes(dtos);
+    }
+}
@@ -0,0 +1,46 @@
+package com.syntaxvault.benchmark;
+
+import com.syntaxvault.dto.SnippetDTO;
+import com.syntaxvault.mapper.SnippetMapper;
+import com.syntaxvault.mapper.TagMapper;
+import com.syntaxvault.model.Snippet;
+import org.openjdk.jmh.annotations.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SnippetMapper.toDTO over a list the size of a page (50) and of a whole
+ * vault listing (2000), as done by the list endpoints.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnippetMapperBenchmark {
+
+    @Param({"50", "2000"})
+    public int snippets;
+
+    private SnippetMapper mapper;
+    private List<Snippet> page;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        mapper = new SnippetMapper(new TagMapper());
+        page = SyntheticData.snippets(snippets, SyntheticData.users(20), SyntheticData.tags(300), random);
+    }
+
+    @Benchmark
+    public List<SnippetDTO> toDTO() {
+        List<SnippetDTO> dtos = new ArrayList<>(page.size());
+        for (Snippet snippet : page) {
+            dtos.add(mapper.toDTO(snippet));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,131 @@
+package com.syntaxvault.benchmark;
+
+import com.syntaxvault.model.Folder;
+import com.syntaxvault.model.Snippet;
+import com.syntaxvault.model.Tag;
+import com.syntaxvault.model.User;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministic entity graphs shaped like a real vault: a few hundred tags,
+ * a handful of languages, content from a line to a few hundred lines, and
+ * roughly a third of the snippets public.
+ */
+final class SyntheticData {
+
+    static final String[] LANGUAGES = {"java", "python", "javascript", "typescript", "go", "sql", "bash", "rust"};
+
+    private static final String[] WORDS = {
+        "sort", "merge", "quick", "binary", "search", "tree", "graph", "cache", "stream", "parse",
+        "token", "buffer", "index", "query", "hash", "heap", "queue", "retry", "backoff", "pool"
+    };
+
+    private SyntheticData() {
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setUsername("user" + i);
+            users.add(user);
+        }
+        return users;
+    }
+
+    static List<Tag> tags(int count) {
+        List<Tag> tags = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            Tag tag = new Tag();
+            tag.setId((long) i);
+            tag.setName(WORDS[i % WORDS.length] + "-" + i);
+            tags.add(tag);
+        }
+        return tags;
+    }
+
+    static List<Snippet> snippets(int count, List<User> users, List<Tag> tags, Random random) {
+        List<Snippet> snippets = new ArrayList<>(count);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 1; i <= count; i++) {
+            Snippet snippet = new Snippet();
+            snippet.setId((long) i);
+            snippet.setTitle(word(random) + " " + word(random) + " " + i);
+            snippet.setDescription("Helper for " + word(random) + " and " + word(random));
+            snippet.setContent(content(random, 1 + random.nextInt(120)));
+            snippet.setLanguage(LANGUAGES[random.nextInt(LANGUAGES.length)]);
+            snippet.setCreationDate(base.plusMinutes(i));
+            snippet.setLastModifiedDate(base.plusMinutes(i + random.nextInt(10_000)));
+            snippet.setUser(users.get(random.nextInt(users.size())));
+            snippet.setIsPublic(random.nextInt(3) == 0);
+            Set<Tag> snippetTags = new HashSet<>();
+            int tagCount = random.nextInt(5);
+            for (int t = 0; t < tagCount; t++) {
+                snippetTags.add(tags.get(random.nextInt(tags.size())));
+            }
+            snippet.setTags(snippetTags);
+            snippets.add(snippet);
+        }
+        return snippets;
+    }
+
+    /**
+     * A complete tree of the given depth and fanout. Parents are referenced by
+     * id-only instances, as Hibernate proxies would be, because Folder's
+     * generated hashCode would otherwise recurse through parent and subfolders.
+     */
+    static Folder folderTree(int depth, int fanout, int snippetsPerFolder, User user) {
+        long[] ids = {0};
+        return folder(null, "root", depth, fanout, snippetsPerFolder, user, ids);
+    }
+
+    private static Folder folder(Folder parent, String name, int depth, int fanout, int snippetsPerFolder,
+                                 User user, long[] ids) {
+        Folder folder = new Folder();
+        folder.setId(++ids[0]);
+        folder.setName(name);
+        folder.setUser(user);
+        if (parent == null) {
+            folder.setPath("/" + name);
+        } else {
+            Folder reference = new Folder();
+            reference.setId(parent.getId());
+            folder.setParent(reference);
+            folder.setPath(parent.getPath() + "/" + name);
+        }
+        Set<Snippet> snippets = new HashSet<>();
+        for (int i = 0; i < snippetsPerFolder; i++) {
+            Snippet snippet = new Snippet();
+            snippet.setId(folder.getId() * snippetsPerFolder + i);
+            snippets.add(snippet);
+        }
+        folder.setSnippets(snippets);
+        if (depth > 0) {
+            Set<Folder> subfolders = new HashSet<>();
+            for (int i = 0; i < fanout; i++) {
+                subfolders.add(folder(folder, name + "-" + i, depth - 1, fanout, snippetsPerFolder, user, ids));
+            }
+            folder.setSubfolders(subfolders);
+        }
+        return folder;
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String content(Random random, int lines) {
+        StringBuilder sb = new StringBuilder(lines * 40);
+        for (int i = 0; i < lines; i++) {
+            sb.append("    ").append(word(random)).append('(').append(word(random)).append(", ")
+              .append(random.nextInt(1000)).append("); // ").append(word(random)).append('\n');
+        }
+        return sb.toString();
+    }
+}
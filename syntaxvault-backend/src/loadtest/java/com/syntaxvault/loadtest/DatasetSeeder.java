@@ -0,0 +1,213 @@
+package com.syntaxvault.loadtest;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Writes a synthetic dataset straight into a migrated schema with JDBC
+ * batches, so seeding large datasets takes seconds and does not exercise the
+ * code under test. Every user owns a complete folder tree, tagged snippets
+ * spread over those folders and a few collections; about a third of the
+ * snippets and collections are public.
+ */
+class DatasetSeeder {
+
+    static final String PASSWORD = "loadtest-password";
+
+    static final String[] LANGUAGES = {"java", "python", "javascript", "typescript", "go", "sql", "bash", "rust"};
+
+    static final String[] WORDS = {
+        "sort", "merge", "quick", "binary", "search", "tree", "graph", "cache", "stream", "parse",
+        "token", "buffer", "index", "query", "hash", "heap", "queue", "retry", "backoff", "pool"
+    };
+
+    private static final int BATCH_SIZE = 1000;
+
+    /** What a simulated client needs to know about the user it acts as. */
+    record SeededUser(long id, String username, List<Long> folderIds, List<Long> snippetIds) {
+    }
+
+    private final LoadTestOptions options;
+    private final Random random;
+
+    DatasetSeeder(LoadTestOptions options) {
+        this.options = options;
+        this.random = new Random(options.seed());
+    }
+
+    List<SeededUser> seed(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+        List<SeededUser> users = new ArrayList<>(options.users());
+        long folderId = 0;
+        long snippetId = 0;
+        long collectionId = 0;
+        LocalDateTime now = LocalDateTime.now();
+
+        try (PreparedStatement user = connection.prepareStatement(
+                 "INSERT INTO Users (id, username, email, password_hash) VALUES (?, ?, ?, ?)");
+             PreparedStatement role = connection.prepareStatement(
+                 "INSERT INTO User_Roles (user_id, role) VALUES (?, 'ROLE_USER')");
+             PreparedStatement tag = connection.prepareStatement(
+                 "INSERT INTO Tags (id, name) VALUES (?, ?)");
+             PreparedStatement folder = connection.prepareStatement(
+                 "INSERT INTO Folders (id, name, parent_id, user_id, path) VALUES (?, ?, ?, ?, ?)");
+             PreparedStatement snippet = connection.prepareStatement(
+                 "INSERT INTO Snippets (id, title, description, content, language, creation_date, " +
+                 "last_modified_date, user_id, is_public, folder_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+             PreparedStatement snippetTag = connection.prepareStatement(
+                 "INSERT INTO Snippet_Tags (snippet_id, tag_id) VALUES (?, ?) ON CONFLICT DO NOTHING");
+             PreparedStatement collection = connection.prepareStatement(
+                 "INSERT INTO Collections (id, name, user_id, is_public) VALUES (?, ?, ?, ?)");
+             PreparedStatement member = connection.prepareStatement(
+                 "INSERT INTO Snippet_Collections (snippet_id, collection_id) VALUES (?, ?) ON CONFLICT DO NOTHING")) {
+
+            for (int t = 1; t <= options.tags(); t++) {
+                tag.setLong(1, t);
+                tag.setString(2, WORDS[t % WORDS.length] + "-" + t);
+                tag.addBatch();
+            }
+            tag.executeBatch();
+
+            for (int u = 1; u <= options.users(); u++) {
+                String username = "load" + u;
+                user.setLong(1, u);
+                user.setString(2, username);
+                user.setString(3, username + "@loadtest.local");
+                user.setString(4, passwordHash);
+                user.addBatch();
+                role.setLong(1, u);
+                role.addBatch();
+            }
+            user.executeBatch();
+            role.executeBatch();
+
+            for (int u = 1; u <= options.users(); u++) {
+                // Folders are written parent first, breadth by breadth
+                List<Long> folderIds = new ArrayList<>();
+                List<Long> level = new ArrayList<>();
+                List<String> levelPaths = new ArrayList<>();
+                level.add(null);
+                levelPaths.add("");
+                for (int depth = 1; depth <= options.folderDepth(); depth++) {
+                    List<Long> next = new ArrayList<>();
+                    List<String> nextPaths = new ArrayList<>();
+                    for (int p = 0; p < level.size(); p++) {
+                        for (int f = 0; f < options.folderFanout(); f++) {
+                            String name = WORDS[random.nextInt(WORDS.length)] + "-" + depth + "-" + f;
+                            String path = levelPaths.get(p) + "/" + name;
+                            folder.setLong(1, ++folderId);
+                            folder.setString(2, name);
+                            folder.setObject(3, level.get(p));
+                            folder.setLong(4, u);
+                            folder.setString(5, path);
+                            folder.addBatch();
+                            next.add(folderId);
+                            nextPaths.add(path);
+                        }
+                    }
+                    folder.executeBatch();
+                    folderIds.addAll(next);
+                    level = next;
+                    levelPaths = nextPaths;
+                }
+
+                List<Long> snippetIds = new ArrayList<>(options.snippetsPerUser());
+                List<Long> publicIds = new ArrayList<>();
+                for (int s = 0; s < options.snippetsPerUser(); s++) {
+                    boolean isPublic = random.nextInt(3) == 0;
+                    LocalDateTime created = now.minusMinutes(random.nextInt(525_600));
+                    snippet.setLong(1, ++snippetId);
+                    snippet.setString(2, word() + " " + word() + " " + snippetId);
+                    snippet.setString(3, "Helper for " + word() + " and " + word());
+                    snippet.setString(4, content(1 + random.nextInt(options.maxContentLines())));
+                    snippet.setString(5, LANGUAGES[random.nextInt(LANGUAGES.length)]);
+                    snippet.setTimestamp(6, Timestamp.valueOf(created));
+                    snippet.setTimestamp(7, Timestamp.valueOf(created.plusMinutes(random.nextInt(10_000))));
+                    snippet.setLong(8, u);
+                    snippet.setBoolean(9, isPublic);
+                    // One in five snippets stays outside any folder
+                    if (folderIds.isEmpty() || random.nextInt(5) == 0) {
+                        snippet.setObject(10, null);
+                    } else {
+                        snippet.setLong(10, folderIds.get(random.nextInt(folderIds.size())));
+                    }
+                    snippet.addBatch();
+                    int tagCount = random.nextInt(5);
+                    long firstTag = 1 + random.nextInt(options.tags());
+                    for (int t = 0; t < tagCount; t++) {
+                        snippetTag.setLong(1, snippetId);
+                        snippetTag.setLong(2, 1 + (firstTag + t * 7L) % options.tags());
+                        snippetTag.addBatch();
+                    }
+                    snippetIds.add(snippetId);
+                    if (isPublic) {
+                        publicIds.add(snippetId);
+                    }
+                    if (snippetId % BATCH_SIZE == 0) {
+                        snippet.executeBatch();
+                        snippetTag.executeBatch();
+                    }
+                }
+                snippet.executeBatch();
+                snippetTag.executeBatch();
+
+                for (int c = 0; c < options.collectionsPerUser(); c++) {
+                    // Public collections may only hold public snippets
+                    boolean isPublic = !publicIds.isEmpty() && random.nextInt(3) == 0;
+                    List<Long> pool = isPublic ? publicIds : snippetIds;
+                    collection.setLong(1, ++collectionId);
+                    collection.setString(2, word() + " collection " + c);
+                    collection.setLong(3, u);
+                    collection.setBoolean(4, isPublic);
+                    collection.addBatch();
+                    collection.executeBatch();
+                    int size = pool.isEmpty() ? 0 : 5 + random.nextInt(16);
+                    for (int m = 0; m < size; m++) {
+                        member.setLong(1, pool.get(random.nextInt(pool.size())));
+                        member.setLong(2, collectionId);
+                        member.addBatch();
+                    }
+                    member.executeBatch();
+                }
+
+                users.add(new SeededUser(u, "load" + u, folderIds, snippetIds));
+                connection.commit();
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT setval(pg_get_serial_sequence('users', 'id'), " + Math.max(1, options.users()) + ")");
+            statement.execute("SELECT setval(pg_get_serial_sequence('tags', 'id'), " + Math.max(1, options.tags()) + ")");
+            statement.execute("SELECT setval(pg_get_serial_sequence('folders', 'id'), " + Math.max(1, folderId) + ")");
+            statement.execute("SELECT setval(pg_get_serial_sequence('collections', 'id'), " + Math.max(1, collectionId) + ")");
+            // Hibernate hands out snippet ids in blocks below each sequence value (pooled optimizer)
+            statement.execute("SELECT setval('snippets_id_seq', " + (snippetId + 50) + ")");
+            connection.commit();
+            connection.setAutoCommit(true);
+            statement.execute("ANALYZE");
+        }
+        return users;
+    }
+
+    private String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private String content(int lines) {
+        StringBuilder sb = new StringBuilder(lines * 40);
+        for (int i = 0; i < lines; i++) {
+            sb.append("    ").append(word()).append('(').append(word()).append(", ")
+              .append(random.nextInt(1000)).append("); // ").append(word()).append('\n');
+        }
+        return sb.toString();
+    }
+}
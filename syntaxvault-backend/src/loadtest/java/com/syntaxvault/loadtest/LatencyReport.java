@@ -0,0 +1,92 @@
+package com.syntaxvault.loadtest;
+
+import org.HdrHistogram.Histogram;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Merges the per-client histograms and writes the results: summary.txt with
+ * throughput and percentiles per operation, and one HdrHistogram percentile
+ * distribution (.hgrm, in milliseconds) per operation plus all.hgrm. The
+ * files are plain text so two builds can be compared with diff or plotted
+ * with the HdrHistogram plotter.
+ */
+class LatencyReport {
+
+    static final long HIGHEST_TRACKABLE_MICROS = 60_000_000L;
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+    private final Histogram all = newHistogram();
+    private final double seconds;
+
+    LatencyReport(List<LoadClient> clients, double seconds) {
+        this.seconds = seconds;
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, newHistogram());
+            errors.put(operation, 0L);
+        }
+        for (LoadClient client : clients) {
+            client.latencies().forEach((operation, histogram) -> {
+                latencies.get(operation).add(histogram);
+                all.add(histogram);
+            });
+            client.errors().forEach((operation, count) -> errors.merge(operation, count, Long::sum));
+        }
+    }
+
+    static Histogram newHistogram() {
+        return new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+    }
+
+    void write(Path dir, String header) throws IOException {
+        Files.createDirectories(dir);
+        try (PrintStream summary = new PrintStream(Files.newOutputStream(dir.resolve("summary.txt")))) {
+            summary.println(header);
+            printSummary(summary);
+        }
+        for (Map.Entry<Operation, Histogram> entry : latencies.entrySet()) {
+            if (entry.getValue().getTotalCount() > 0) {
+                writeDistribution(dir.resolve(entry.getKey().name() + ".hgrm"), entry.getValue());
+            }
+        }
+        writeDistribution(dir.resolve("all.hgrm"), all);
+    }
+
+    void printSummary(PrintStream out) {
+        out.printf(Locale.ROOT, "%-16s %9s %7s %9s %9s %9s %9s %9s %9s %9s%n",
+            "operation", "count", "errors", "req/s", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        latencies.forEach((operation, histogram) -> {
+            if (histogram.getTotalCount() > 0) {
+                printRow(out, operation.name(), histogram, errors.get(operation));
+            }
+        });
+        printRow(out, "all", all, errors.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    private void printRow(PrintStream out, String name, Histogram histogram, long errorCount) {
+        out.printf(Locale.ROOT, "%-16s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+            name,
+            histogram.getTotalCount(),
+            errorCount,
+            histogram.getTotalCount() / seconds,
+            histogram.getMean() / 1000.0,
+            histogram.getValueAtPercentile(50) / 1000.0,
+            histogram.getValueAtPercentile(90) / 1000.0,
+            histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0,
+            histogram.getMaxValue() / 1000.0);
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, 1000.0);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.syntaxvault.loadtest;
+
+import org.HdrHistogram.Histogram;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One simulated user session: issues requests back to back, choosing each
+ * operation from the weighted mix, and records the latency of every request
+ * in its own histograms. Closed loop, so a slow server lowers the offered
+ * load instead of queueing requests.
+ */
+class LoadClient implements Runnable {
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private final String token;
+    private final DatasetSeeder.SeededUser user;
+    private final Operation[] mix;
+    private final Random random;
+    private final AtomicBoolean measuring;
+    private final AtomicBoolean running;
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+
+    LoadClient(HttpClient http, String baseUrl, String token, DatasetSeeder.SeededUser user, Operation[] mix,
+               long seed, AtomicBoolean measuring, AtomicBoolean running) {
+        this.http = http;
+        this.baseUrl = baseUrl;
+        this.token = token;
+        this.user = user;
+        this.mix = mix;
+        this.random = new Random(seed);
+        this.measuring = measuring;
+        this.running = running;
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, LatencyReport.newHistogram());
+            errors.put(operation, 0L);
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running.get()) {
+            Operation operation = mix[random.nextInt(mix.length)];
+            HttpRequest request = operation.request(this);
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                status = -1;
+            }
+            long micros = (System.nanoTime() - start) / 1000;
+            if (measuring.get()) {
+                latencies.get(operation).recordValue(Math.min(micros, LatencyReport.HIGHEST_TRACKABLE_MICROS));
+                if (status < 200 || status >= 400) {
+                    errors.merge(operation, 1L, Long::sum);
+                }
+            }
+        }
+    }
+
+    Map<Operation, Histogram> latencies() {
+        return latencies;
+    }
+
+    Map<Operation, Long> errors() {
+        return errors;
+    }
+
+    DatasetSeeder.SeededUser user() {
+        return user;
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    String token() {
+        return token;
+    }
+
+    String word() {
+        return DatasetSeeder.WORDS[random.nextInt(DatasetSeeder.WORDS.length)];
+    }
+
+    <T> T pick(List<T> values) {
+        return values.isEmpty() ? null : values.get(random.nextInt(values.size()));
+    }
+
+    String snippetJson(String verb) {
+        StringBuilder content = new StringBuilder();
+        int lines = 1 + random.nextInt(40);
+        for (int i = 0; i < lines; i++) {
+            content.append("    ").append(word()).append('(').append(random.nextInt(1000)).append(");\\n");
+        }
+        return "{\"title\":\"" + word() + " " + verb + " " + random.nextInt(1_000_000) + "\"," +
+            "\"description\":\"load test\",\"content\":\"" + content + "\"," +
+            "\"language\":\"" + DatasetSeeder.LANGUAGES[random.nextInt(DatasetSeeder.LANGUAGES.length)] + "\"," +
+            "\"tags\":[\"" + word() + "\",\"" + word() + "-" + random.nextInt(50) + "\"]," +
+            "\"isPublic\":" + (random.nextInt(3) == 0) + "}";
+    }
+
+    HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Authorization", "Bearer " + token)
+            .GET();
+    }
+
+    HttpRequest.Builder post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Authorization", "Bearer " + token)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+}
@@ -0,0 +1,132 @@
+package com.syntaxvault.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syntaxvault.SyntaxvaultBackendApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * End-to-end load test of the REST API.
+ *
+ * Starts an embedded PostgreSQL, migrates and seeds it with a synthetic
+ * dataset, boots the application on a random port in this JVM and drives it
+ * with concurrent closed-loop clients running a weighted mix of operations.
+ * Latencies recorded after the warmup are written to --out as HdrHistogram
+ * reports (see LatencyReport).
+ *
+ * Usage: mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--clients=64 --duration=120"
+ * Options and defaults are in LoadTestOptions.
+ */
+public class LoadTest {
+
+    private static final String DB_USER = "postgres";
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        System.out.println("Load test: " + options);
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start()) {
+            String jdbcUrl = postgres.getJdbcUrl(DB_USER, "postgres") + "&reWriteBatchedInserts=true";
+            Flyway.configure()
+                .dataSource(jdbcUrl, DB_USER, null)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+            long seedStart = System.nanoTime();
+            List<DatasetSeeder.SeededUser> users;
+            try (Connection connection = postgres.getPostgresDatabase().getConnection()) {
+                users = new DatasetSeeder(options).seed(connection);
+            }
+            System.out.printf("Seeded %d users and %d snippets in %.1fs%n", users.size(),
+                (long) users.size() * options.snippetsPerUser(), (System.nanoTime() - seedStart) / 1e9);
+
+            try (ConfigurableApplicationContext context = SpringApplication.run(SyntaxvaultBackendApplication.class,
+                    "--spring.datasource.url=" + jdbcUrl,
+                    "--spring.datasource.username=" + DB_USER,
+                    "--spring.datasource.password=",
+                    "--spring.datasource.hikari.maximum-pool-size=" + Math.max(10, options.clients() / 2),
+                    "--jwt.secret=load-test-secret-load-test-secret-load-test-secret-load-test-secret",
+                    "--jwt.expiration=" + Duration.ofHours(2).toMillis(),
+                    "--spring.jpa.show-sql=false",
+                    "--logging.level.root=WARN",
+                    "--server.port=0",
+                    "--management.server.port=0")) {
+                int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+                run(options, "http://localhost:" + port, users);
+            }
+        }
+    }
+
+    private static void run(LoadTestOptions options, String baseUrl, List<DatasetSeeder.SeededUser> users)
+            throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        ObjectMapper json = new ObjectMapper();
+        Operation[] mix = Operation.weighted(options.mix());
+        AtomicBoolean measuring = new AtomicBoolean(false);
+        AtomicBoolean running = new AtomicBoolean(true);
+
+        List<LoadClient> clients = new ArrayList<>(options.clients());
+        for (int i = 0; i < options.clients(); i++) {
+            DatasetSeeder.SeededUser user = users.get(i % users.size());
+            String token = login(http, json, baseUrl, user);
+            clients.add(new LoadClient(http, baseUrl, token, user, mix, options.seed() + i, measuring, running));
+        }
+
+        List<Thread> threads = new ArrayList<>(clients.size());
+        for (int i = 0; i < clients.size(); i++) {
+            Thread thread = new Thread(clients.get(i), "load-client-" + i);
+            threads.add(thread);
+            thread.start();
+        }
+
+        System.out.printf("Warming up for %ds with %d clients%n", options.warmup().toSeconds(), clients.size());
+        Thread.sleep(options.warmup().toMillis());
+        measuring.set(true);
+        long start = System.nanoTime();
+        System.out.printf("Measuring for %ds%n", options.duration().toSeconds());
+        Thread.sleep(options.duration().toMillis());
+        measuring.set(false);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        LatencyReport report = new LatencyReport(clients, seconds);
+        report.write(options.out(), "Load test: " + options);
+        report.printSummary(System.out);
+        System.out.println("Histograms written to " + options.out().toAbsolutePath());
+    }
+
+    private static String login(HttpClient http, ObjectMapper json, String baseUrl, DatasetSeeder.SeededUser user)
+            throws Exception {
+        String body = "{\"username\":\"" + user.username() + "\",\"password\":\"" + DatasetSeeder.PASSWORD + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/login"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login as " + user.username() + " failed with " + response.statusCode());
+        }
+        JsonNode node = json.readTree(response.body());
+        return node.get("token").asText();
+    }
+}
@@ -0,0 +1,77 @@
+package com.syntaxvault.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line options of the load test, given as --name=value.
+ *
+ * @param mix relative weight of each operation, e.g. "publicFeed:20,search:10"
+ */
+record LoadTestOptions(int users, int snippetsPerUser, int folderDepth, int folderFanout, int tags,
+                       int collectionsPerUser, int maxContentLines, int clients, Duration warmup,
+                       Duration duration, Map<Operation, Integer> mix, long seed, Path out) {
+
+    static final String DEFAULT_MIX =
+        "login:2,search:10,rankedSearch:5,publicFeed:20,userSnippets:15,folderTree:15," +
+        "folderSnippets:15,updateSnippet:13,createSnippet:5";
+
+    private static final Set<String> KNOWN = Set.of(
+        "users", "snippets-per-user", "folder-depth", "folder-fanout", "tags", "collections-per-user",
+        "max-content-lines", "clients", "warmup", "duration", "mix", "seed", "out");
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            int eq = arg.indexOf('=');
+            values.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        LoadTestOptions options = new LoadTestOptions(
+            intValue(values, "users", 100),
+            intValue(values, "snippets-per-user", 200),
+            intValue(values, "folder-depth", 3),
+            intValue(values, "folder-fanout", 3),
+            intValue(values, "tags", 300),
+            intValue(values, "collections-per-user", 5),
+            intValue(values, "max-content-lines", 120),
+            intValue(values, "clients", 32),
+            Duration.ofSeconds(intValue(values, "warmup", 15)),
+            Duration.ofSeconds(intValue(values, "duration", 60)),
+            parseMix(values.getOrDefault("mix", DEFAULT_MIX)),
+            Long.parseLong(values.getOrDefault("seed", "42")),
+            Path.of(values.getOrDefault("out", "target/loadtest")));
+        values.keySet().removeAll(KNOWN);
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options " + values.keySet());
+        }
+        return options;
+    }
+
+    private static int intValue(Map<String, String> values, String name, int defaultValue) {
+        String value = values.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            weights.put(Operation.valueOf(pair[0]), Integer.parseInt(pair[1]));
+        }
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        return "users=" + users + " snippetsPerUser=" + snippetsPerUser + " folderDepth=" + folderDepth +
+            " folderFanout=" + folderFanout + " tags=" + tags + " collectionsPerUser=" + collectionsPerUser +
+            " clients=" + clients + " warmup=" + warmup.toSeconds() + "s duration=" + duration.toSeconds() +
+            "s seed=" + seed + " mix=" + mix;
+    }
+}
@@ -0,0 +1,121 @@
+package com.syntaxvault.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The requests a simulated client issues. Each builds one HTTP request for
+ * the client's user, picking its arguments from the seeded data.
+ */
+enum Operation {
+
+    login {
+        @Override
+        HttpRequest request(LoadClient client) {
+            String body = "{\"username\":\"" + client.user().username() + "\",\"password\":\"" + DatasetSeeder.PASSWORD + "\"}";
+            return client.post("/api/users/login", body).build();
+        }
+    },
+
+    search {
+        @Override
+        HttpRequest request(LoadClient client) {
+            return client.get("/api/snippets/search?keyword=" + client.word()).build();
+        }
+    },
+
+    rankedSearch {
+        @Override
+        HttpRequest request(LoadClient client) {
+            return client.get("/api/snippets/search/ranked?size=20&q=" + client.word()).build();
+        }
+    },
+
+    publicFeed {
+        @Override
+        HttpRequest request(LoadClient client) {
+            return client.get("/api/snippets/public?limit=20").build();
+        }
+    },
+
+    userSnippets {
+        @Override
+        HttpRequest request(LoadClient client) {
+            return client.get("/api/snippets/user?limit=20").build();
+        }
+    },
+
+    folderTree {
+        @Override
+        HttpRequest request(LoadClient client) {
+            return client.get("/api/folders/tree").build();
+        }
+    },
+
+    folderSnippets {
+        @Override
+        HttpRequest request(LoadClient client) {
+            Long folderId = client.pick(client.user().folderIds());
+            if (folderId == null) {
+                return userSnippets.request(client);
+            }
+            return client.get("/api/snippets/folder/" + folderId + "?recursive=true&limit=20").build();
+        }
+    },
+
+    updateSnippet {
+        @Override
+        HttpRequest request(LoadClient client) {
+            Long snippetId = client.pick(client.user().snippetIds());
+            if (snippetId == null) {
+                return createSnippet.request(client);
+            }
+            return HttpRequest.newBuilder(URI.create(client.baseUrl() + "/api/snippets/" + snippetId))
+                .header("Authorization", "Bearer " + client.token())
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(client.snippetJson("edited")))
+                .build();
+        }
+    },
+
+    createSnippet {
+        @Override
+        HttpRequest request(LoadClient client) {
+            return client.post("/api/snippets", client.snippetJson("created")).build();
+        }
+    },
+
+    // Not in the default mix; run e.g. --mix=importSnippets:1 to measure bulk import throughput
+    importSnippets {
+        @Override
+        HttpRequest request(LoadClient client) {
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < IMPORT_BATCH_SIZE; i++) {
+                body.append(client.snippetJson("imported")).append('\n');
+            }
+            return HttpRequest.newBuilder(URI.create(client.baseUrl() + "/api/snippets/import"))
+                .header("Authorization", "Bearer " + client.token())
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        }
+    };
+
+    // Snippets per import request; divide by the import latency for snippets per second
+    static final int IMPORT_BATCH_SIZE = 500;
+
+    abstract HttpRequest request(LoadClient client);
+
+    static Operation[] weighted(Map<Operation, Integer> mix) {
+        List<Operation> slots = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(operation);
+            }
+        });
+        return slots.toArray(new Operation[0]);
+    }
+}
@@ -1,5 +1,61 @@
 package com.syntaxvault.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.time.Duration;
+
+/**
+ * In-memory caches for the unauthenticated public endpoints.
+ *
+ * Every cache is size-bounded, expires entries after a TTL and records
+ * hit/miss statistics (published as cache.gets metrics by the actuator).
+ * The manager is transaction-aware, so evictions issued inside a write
+ * transaction only happen once it commits.
+ */
+@Configuration
+@EnableCaching
 public class CacheConfig {
-    
+
+    public static final String PUBLIC_SNIPPET_FEED = "publicSnippetFeed";
+    public static final String PUBLIC_SNIPPETS = "publicSnippets";
+    public static final String PUBLIC_COLLECTION_FEED = "publicCollectionFeed";
+    public static final String PUBLIC_COLLECTIONS = "publicCollections";
+
+    @Value("${syntaxvault.cache.feed.max-entries:1000}")
+    private long feedMaxEntries;
+
+    @Value("${syntaxvault.cache.feed.ttl:30s}")
+    private Duration feedTtl;
+
+    @Value("${syntaxvault.cache.item.max-entries:10000}")
+    private long itemMaxEntries;
+
+    @Value("${syntaxvault.cache.item.ttl:5m}")
+    private Duration itemTtl;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        // Absent items are not cached, so a later publish is visible immediately
+        caffeine.setAllowNullValues(false);
+        caffeine.registerCustomCache(PUBLIC_SNIPPET_FEED, spec(feedMaxEntries, feedTtl));
+        caffeine.registerCustomCache(PUBLIC_COLLECTION_FEED, spec(feedMaxEntries, feedTtl));
+        caffeine.registerCustomCache(PUBLIC_SNIPPETS, spec(itemMaxEntries, itemTtl));
+        caffeine.registerCustomCache(PUBLIC_COLLECTIONS, spec(itemMaxEntries, itemTtl));
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> spec(long maxEntries, Duration ttl) {
+        return Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
 }
@@ -0,0 +1,24 @@
+package com.syntaxvault.config;
+
+import com.syntaxvault.metrics.HibernateStatisticsMetrics;
+import com.syntaxvault.metrics.StatementCounter;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCounter());
+    }
+
+    @Bean
+    public HibernateStatisticsMetrics hibernateStatisticsMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateStatisticsMetrics(entityManagerFactory.unwrap(SessionFactory.class).getStatistics());
+    }
+}
@@ -0,0 +1,27 @@
+package com.syntaxvault.config;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Lets a handler override the async timeout of its own request, e.g. for a
+ * long StreamingResponseBody, by storing a Duration under TIMEOUT_ATTRIBUTE.
+ * Every other request keeps the global spring.mvc.async.request-timeout.
+ */
+public class RequestAsyncTimeoutInterceptor implements CallableProcessingInterceptor {
+
+    public static final String TIMEOUT_ATTRIBUTE = RequestAsyncTimeoutInterceptor.class.getName() + ".timeout";
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        // Runs before async processing starts, while the timeout can still be changed
+        Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (timeout instanceof Duration duration && request instanceof AsyncWebRequest asyncRequest) {
+            asyncRequest.setTimeout(duration.toMillis());
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package com.syntaxvault.controller;
 
 import com.syntaxvault.dto.CollectionDTO;
+import com.syntaxvault.dto.CollectionMembershipRequest;
+import com.syntaxvault.dto.CollectionMembershipResult;
 import com.syntaxvault.dto.CollectionRequest;
+import com.syntaxvault.security.AuthenticatedUser;
 import com.syntaxvault.service.CollectionService;
-import com.syntaxvault.service.UserService;
+import com.syntaxvault.service.ContentVersionService;
+import com.syntaxvault.util.ConditionalGet;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/collections")
@@ -20,28 +24,29 @@ public class CollectionController {
     private CollectionService collectionService;
 
     @Autowired
-    private UserService userService;
+    private ContentVersionService contentVersionService;
 
     @PostMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<CollectionDTO> createCollection(@RequestBody CollectionRequest collectionRequest){
-        CollectionDTO createdCollectionDTO = collectionService.createCollection(collectionRequest);
+    public ResponseEntity<CollectionDTO> createCollection(@RequestBody CollectionRequest collectionRequest, AuthenticatedUser user){
+        CollectionDTO createdCollectionDTO = collectionService.createCollection(collectionRequest, user);
         return ResponseEntity.ok(createdCollectionDTO);
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<CollectionDTO> getCollectionById(@PathVariable Long id){
-        Optional<CollectionDTO> collectionDTOOpt = collectionService.getCollectionByIdDTO(id);
-        return collectionDTOOpt.map(ResponseEntity::ok)
-                              .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<CollectionDTO> getCollectionById(@PathVariable Long id, WebRequest request){
+        return ConditionalGet.ifModified(request, contentVersionService.collectionETag(id), () ->
+            collectionService.getCollectionByIdDTO(id)
+                .map(dto -> ResponseEntity.ok().cacheControl(ConditionalGet.REVALIDATE_PRIVATE).body(dto))
+                .orElse(ResponseEntity.notFound().build()));
     }
 
     @GetMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<CollectionDTO>> getAllCollections(){
-        List<CollectionDTO> collectionDTOs = collectionService.getAllCollectionsDTO();
-        return ResponseEntity.ok(collectionDTOs);
+    public ResponseEntity<List<CollectionDTO>> getAllCollections(AuthenticatedUser user, WebRequest request){
+        return ConditionalGet.forUser(request, contentVersionService.userCollectionsETag(user.id()),
+            () -> collectionService.getAllCollectionsDTO(user));
     }
 
     @PutMapping("/{id}")
@@ -51,6 +56,13 @@ public class CollectionController {
         return ResponseEntity.ok(updatedCollectionDTO);
     }
 
+    @PatchMapping("/{id}/snippets")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<CollectionMembershipResult> updateMembership(@PathVariable Long id, @RequestBody CollectionMembershipRequest membershipRequest, AuthenticatedUser user){
+        CollectionMembershipResult result = collectionService.updateMembership(id, membershipRequest, user);
+        return ResponseEntity.ok(result);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Void> deleteCollection(@PathVariable Long id){
@@ -59,15 +71,16 @@ public class CollectionController {
     }
 
     @GetMapping("/public")
-    public ResponseEntity<List<CollectionDTO>> getPublicCollections() {
-        List<CollectionDTO> publicCollections = collectionService.getPublicCollections();
-        return ResponseEntity.ok(publicCollections);
+    public ResponseEntity<List<CollectionDTO>> getPublicCollections(WebRequest request) {
+        return ConditionalGet.forPublic(request, contentVersionService.publicCollectionsETag(),
+            () -> collectionService.getPublicCollections());
     }
 
     @GetMapping("/public/{id}")
-    public ResponseEntity<CollectionDTO> getPublicCollectionById(@PathVariable Long id) {
-        Optional<CollectionDTO> collectionDTO = collectionService.getPublicCollectionById(id);
-        return collectionDTO.map(ResponseEntity::ok)
-                          .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<CollectionDTO> getPublicCollectionById(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.ifModified(request, contentVersionService.publicCollectionETag(id), () ->
+            collectionService.getPublicCollectionById(id)
+                .map(dto -> ResponseEntity.ok().cacheControl(ConditionalGet.REVALIDATE_PUBLIC).body(dto))
+                .orElse(ResponseEntity.notFound().build()));
     }
 }
\ No newline at end of file
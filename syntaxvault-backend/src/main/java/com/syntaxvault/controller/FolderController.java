@@ -2,6 +2,8 @@ package com.syntaxvault.controller;
 
 import com.syntaxvault.dto.FolderDTO;
 import com.syntaxvault.dto.FolderRequest;
+import com.syntaxvault.dto.FolderTreeDTO;
+import com.syntaxvault.security.AuthenticatedUser;
 import com.syntaxvault.service.FolderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -19,18 +21,25 @@ public class FolderController {
 
     @PostMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<FolderDTO> createFolder(@RequestBody FolderRequest folderRequest) {
-        FolderDTO createdFolder = folderService.createFolder(folderRequest);
+    public ResponseEntity<FolderDTO> createFolder(@RequestBody FolderRequest folderRequest, AuthenticatedUser user) {
+        FolderDTO createdFolder = folderService.createFolder(folderRequest, user);
         return ResponseEntity.ok(createdFolder);
     }
 
     @GetMapping("/root")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<FolderDTO>> getRootFolders() {
-        List<FolderDTO> rootFolders = folderService.getRootFolders();
+    public ResponseEntity<List<FolderDTO>> getRootFolders(AuthenticatedUser user) {
+        List<FolderDTO> rootFolders = folderService.getRootFolders(user);
         return ResponseEntity.ok(rootFolders);
     }
 
+    @GetMapping("/tree")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<List<FolderTreeDTO>> getFolderTree(AuthenticatedUser user) {
+        List<FolderTreeDTO> tree = folderService.getFolderTree(user);
+        return ResponseEntity.ok(tree);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<FolderDTO> getFolderById(@PathVariable Long id) {
@@ -41,8 +50,8 @@ public class FolderController {
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<FolderDTO> updateFolder(@PathVariable Long id, @RequestBody FolderRequest folderRequest) {
-        FolderDTO updatedFolder = folderService.updateFolder(id, folderRequest);
+    public ResponseEntity<FolderDTO> updateFolder(@PathVariable Long id, @RequestBody FolderRequest folderRequest, AuthenticatedUser user) {
+        FolderDTO updatedFolder = folderService.updateFolder(id, folderRequest, user);
         return ResponseEntity.ok(updatedFolder);
     }
 
@@ -55,8 +64,8 @@ public class FolderController {
 
     @GetMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<FolderDTO>> getAllFolders() {
-        List<FolderDTO> folders = folderService.getAllFolders();
+    public ResponseEntity<List<FolderDTO>> getAllFolders(AuthenticatedUser user) {
+        List<FolderDTO> folders = folderService.getAllFolders(user);
         return ResponseEntity.ok(folders);
     }
 } 
\ No newline at end of file
@@ -1,19 +1,38 @@
 package com.syntaxvault.controller;
 
+import com.syntaxvault.config.RequestAsyncTimeoutInterceptor;
 import com.syntaxvault.dto.SnippetDTO;
+import com.syntaxvault.dto.SnippetDuplicateDTO;
+import com.syntaxvault.dto.SnippetPage;
+import com.syntaxvault.dto.SnippetSearchResult;
 import com.syntaxvault.dto.SnippetRequest;
-import com.syntaxvault.model.User;
+import com.syntaxvault.dto.SnippetSummaryPage;
+import com.syntaxvault.search.MinHash;
+import com.syntaxvault.security.AuthenticatedUser;
+import com.syntaxvault.service.ContentVersionService;
 import com.syntaxvault.service.SnippetService;
-import com.syntaxvault.service.UserService;
+import com.syntaxvault.service.VaultExportService;
+import com.syntaxvault.service.SnippetImportService;
+import com.syntaxvault.dto.SnippetImportResult;
+import com.syntaxvault.util.ConditionalGet;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.security.core.Authentication;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import java.util.List;
-import java.util.Optional;
 import com.syntaxvault.mapper.SnippetMapper;
 import java.util.Map;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 @RestController
 @RequestMapping("/api/snippets")
@@ -23,43 +42,72 @@ public class SnippetController {
     private SnippetService snippetService;
 
     @Autowired
-    private UserService userService;
+    private ContentVersionService contentVersionService;
 
     @Autowired
     private SnippetMapper snippetMapper;
 
+    @Autowired
+    private VaultExportService vaultExportService;
+
+    @Autowired
+    private SnippetImportService snippetImportService;
+
+    // Zero or negative means the export stream never times out
+    @Value("${syntaxvault.export.request-timeout:-1}")
+    private Duration exportTimeout;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
     @PostMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<SnippetDTO> createSnippet(@RequestBody SnippetRequest snippetRequest, Authentication authentication) {
-        String username = authentication.getName();
-        User user = userService.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
+    public ResponseEntity<SnippetDTO> createSnippet(@RequestBody SnippetRequest snippetRequest, AuthenticatedUser user) {
         SnippetDTO createdSnippetDTO = snippetService.createSnippet(snippetRequest, user);
         return ResponseEntity.ok(createdSnippetDTO);
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<SnippetDTO> getSnippetById(@PathVariable Long id){
-        Optional<SnippetDTO> snippetDTOOpt = snippetService.getSnippetByIdDTO(id);
-        return snippetDTOOpt.map(ResponseEntity::ok)
-                            .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<SnippetDTO> getSnippetById(@PathVariable Long id, WebRequest request){
+        return ConditionalGet.ifModified(request, contentVersionService.snippetETag(id), () ->
+            snippetService.getSnippetByIdDTO(id)
+                .map(dto -> ResponseEntity.ok().cacheControl(ConditionalGet.REVALIDATE_PRIVATE).body(dto))
+                .orElse(ResponseEntity.notFound().build()));
     }
 
     @GetMapping
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<SnippetDTO>> getAllSnippets(){
-        List<SnippetDTO> snippetDTOs = snippetService.getAllSnippetsDTO();
-        return ResponseEntity.ok(snippetDTOs);
+    public ResponseEntity<List<SnippetDTO>> getAllSnippets(AuthenticatedUser user, WebRequest request){
+        return ConditionalGet.forUser(request, contentVersionService.userSnippetsETag(user.id()),
+            () -> snippetService.getAllSnippetsDTO(user));
+    }
+
+    @GetMapping(params = "limit")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<SnippetPage> getAllSnippetsPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            AuthenticatedUser user,
+            WebRequest request) {
+        return ConditionalGet.forUser(request, contentVersionService.userSnippetsETag(user.id()),
+            () -> snippetService.getAllSnippetsPage(user, cursor, clampLimit(limit)));
+    }
+
+    // Title, language, tags and dates only; fetch /{id} for the content
+    @GetMapping("/summaries")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<SnippetSummaryPage> getSnippetSummaries(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            AuthenticatedUser user,
+            WebRequest request) {
+        return ConditionalGet.forUser(request, contentVersionService.userSnippetsETag(user.id()),
+            () -> snippetService.getSnippetSummariesPage(user, cursor, clampLimit(limit)));
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<SnippetDTO> updateSnippet(@PathVariable Long id, @RequestBody SnippetRequest snippetRequest, Authentication authentication) {
-        String username = authentication.getName();
-        User user = userService.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+    public ResponseEntity<SnippetDTO> updateSnippet(@PathVariable Long id, @RequestBody SnippetRequest snippetRequest, AuthenticatedUser user) {
         System.out.println("Controller received isPublic value: " + snippetRequest.isPublic());
         SnippetDTO updatedSnippetDTO = snippetService.updateSnippet(id, snippetRequest, user);
         return ResponseEntity.ok(updatedSnippetDTO);
@@ -77,20 +125,76 @@ public class SnippetController {
     public ResponseEntity<List<SnippetDTO>> searchSnippets(
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) String language,
-            @RequestParam(required = false) List<String> tags) { // Changed to List<String>
-        List<SnippetDTO> snippetDTOs = snippetService.searchSnippets(keyword, language, tags);
+            @RequestParam(required = false) List<String> tags, // Changed to List<String>
+            AuthenticatedUser user) {
+        List<SnippetDTO> snippetDTOs = snippetService.searchSnippets(keyword, language, tags, user);
         return ResponseEntity.ok(snippetDTOs);
     }
 
+    // facets=N also returns language counts and the N most frequent tags over all matches
+    @GetMapping(value = "/search", params = "facets")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<SnippetSearchResult> searchSnippetsWithFacets(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam int facets,
+            AuthenticatedUser user) {
+        SnippetSearchResult result = snippetService.searchSnippetsWithFacets(keyword, language, tags, clampLimit(facets), user);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/search/ranked")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<Page<SnippetDTO>> rankedSearch(
+            @RequestParam String q,
+            @RequestParam(required = false) String language,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            AuthenticatedUser user) {
+        if (q.isBlank()) {
+            throw new RuntimeException("Search query must not be empty");
+        }
+        Pageable pageable = PageRequest.of(Math.max(page, 0), clampLimit(size));
+        Page<SnippetDTO> results = snippetService.rankedSearch(q, language, pageable, user);
+        return ResponseEntity.ok(results);
+    }
+
     @GetMapping("/user")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
-    public ResponseEntity<List<SnippetDTO>> getUserSnippets(Authentication authentication) {
-        String username = authentication.getName();
-        User user = userService.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-        
-        List<SnippetDTO> snippetDTOs = snippetService.getSnippetsByUserDTO(user);
-        return ResponseEntity.ok(snippetDTOs);
+    public ResponseEntity<List<SnippetDTO>> getUserSnippets(AuthenticatedUser user, WebRequest request) {
+        return ConditionalGet.forUser(request, contentVersionService.userSnippetsETag(user.id()),
+            () -> snippetService.getSnippetsByUserDTO(user));
+    }
+
+    @GetMapping(value = "/user", params = "limit")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<SnippetPage> getUserSnippetsPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            AuthenticatedUser user,
+            WebRequest request) {
+        return ConditionalGet.forUser(request, contentVersionService.userSnippetsETag(user.id()),
+            () -> snippetService.getSnippetsByUserPage(user, cursor, clampLimit(limit)));
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/json", "application/x-ndjson"})
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<SnippetImportResult> importSnippets(InputStream body, AuthenticatedUser user) throws IOException {
+        SnippetImportResult result = snippetImportService.importSnippets(body, user);
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportVault(AuthenticatedUser user, WebRequest request) {
+        // Only the export may outlive the global async timeout
+        request.setAttribute(RequestAsyncTimeoutInterceptor.TIMEOUT_ATTRIBUTE, exportTimeout, RequestAttributes.SCOPE_REQUEST);
+        Long userId = user.id();
+        StreamingResponseBody body = out -> vaultExportService.exportVault(userId, out);
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"syntaxvault-" + user.username() + ".ndjson\"")
+            .body(body);
     }
 
     // Additional endpoints (e.g., search) can be added here
@@ -98,16 +202,51 @@ public class SnippetController {
     // Utility method to convert Collection to CollectionDTO can be added here if needed
 
     @GetMapping("/public")
-    public ResponseEntity<List<SnippetDTO>> getPublicSnippets() {
-        List<SnippetDTO> publicSnippets = snippetService.getPublicSnippets();
-        return ResponseEntity.ok(publicSnippets);
+    public ResponseEntity<List<SnippetDTO>> getPublicSnippets(WebRequest request) {
+        return ConditionalGet.forPublic(request, contentVersionService.publicSnippetsETag(),
+            () -> snippetService.getPublicSnippets());
+    }
+
+    @GetMapping(value = "/public", params = "limit")
+    public ResponseEntity<SnippetPage> getPublicSnippetsPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+        return ConditionalGet.forPublic(request, contentVersionService.publicSnippetsETag(),
+            () -> snippetService.getPublicSnippetsPage(cursor, clampLimit(limit)));
+    }
+
+    @GetMapping("/public/summaries")
+    public ResponseEntity<SnippetSummaryPage> getPublicSnippetSummaries(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+        return ConditionalGet.forPublic(request, contentVersionService.publicSnippetsETag(),
+            () -> snippetService.getPublicSnippetSummariesPage(cursor, clampLimit(limit)));
     }
 
     @GetMapping("/public/{id}")
-    public ResponseEntity<SnippetDTO> getPublicSnippetById(@PathVariable Long id) {
-        Optional<SnippetDTO> snippetDTO = snippetService.getPublicSnippetById(id);
-        return snippetDTO.map(ResponseEntity::ok)
-                        .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<SnippetDTO> getPublicSnippetById(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.ifModified(request, contentVersionService.publicSnippetETag(id), () ->
+            snippetService.getPublicSnippetById(id)
+                .map(dto -> ResponseEntity.ok().cacheControl(ConditionalGet.REVALIDATE_PUBLIC).body(dto))
+                .orElse(ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping("/{id}/duplicates")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<List<SnippetDuplicateDTO>> getDuplicates(
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "0.8") double threshold,
+        @RequestParam(defaultValue = "20") int limit,
+        AuthenticatedUser user) {
+
+        if (threshold < MinHash.MIN_THRESHOLD || threshold > 1) {
+            throw new RuntimeException("Threshold must be between " + MinHash.MIN_THRESHOLD + " and 1");
+        }
+        return snippetService.findDuplicates(id, threshold, clampLimit(limit), user)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}/move")
@@ -115,11 +254,7 @@ public class SnippetController {
     public ResponseEntity<SnippetDTO> moveSnippet(
         @PathVariable Long id,
         @RequestBody Map<String, Long> request,
-        Authentication authentication) {
-        
-        String username = authentication.getName();
-        User user = userService.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        AuthenticatedUser user) {
         
         Long folderId = request.get("folderId");
         SnippetDTO movedSnippet = snippetService.moveSnippet(id, folderId, user);
@@ -130,13 +265,40 @@ public class SnippetController {
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public ResponseEntity<List<SnippetDTO>> getSnippetsByFolder(
         @PathVariable Long folderId,
-        Authentication authentication) {
-        
-        String username = authentication.getName();
-        User user = userService.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        AuthenticatedUser user) {
         
         List<SnippetDTO> snippets = snippetService.getSnippetsByFolder(folderId, user);
         return ResponseEntity.ok(snippets);
     }
+
+    @GetMapping(value = "/folder/{folderId}", params = "limit")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<SnippetPage> getSnippetsByFolderPage(
+        @PathVariable Long folderId,
+        @RequestParam int limit,
+        @RequestParam(required = false) String cursor,
+        AuthenticatedUser user) {
+
+        SnippetPage page = snippetService.getSnippetsByFolderPage(folderId, user, cursor, clampLimit(limit));
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping(value = "/folder/{folderId}", params = "recursive=true")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<SnippetPage> getSnippetsUnderFolder(
+        @PathVariable Long folderId,
+        @RequestParam(required = false) String language,
+        @RequestParam(required = false) List<String> tags,
+        @RequestParam(defaultValue = "20") int limit,
+        @RequestParam(required = false) String cursor,
+        AuthenticatedUser user) {
+
+        SnippetPage page = snippetService.getSnippetsUnderFolderPage(folderId, user, language, tags, cursor, clampLimit(limit));
+        return ResponseEntity.ok(page);
+    }
+
+    // Keep page sizes between 1 and MAX_PAGE_SIZE
+    private static int clampLimit(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
 }
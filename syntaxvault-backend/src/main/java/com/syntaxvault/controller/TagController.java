@@ -1,10 +1,16 @@
 package com.syntaxvault.controller;
 
 import com.syntaxvault.dto.TagDTO;
+import com.syntaxvault.dto.TagSuggestionDTO;
 import com.syntaxvault.mapper.TagMapper;
 import com.syntaxvault.model.Tag;
 import com.syntaxvault.repository.TagRepository;
+import com.syntaxvault.search.SnippetFacetIndex;
+import com.syntaxvault.search.TagPrefixIndex;
+import com.syntaxvault.service.TagDictionaryService;
+import com.syntaxvault.service.PublicContentCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -12,6 +18,7 @@ import jakarta.validation.Valid;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.Collections;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/tags")
@@ -23,6 +30,20 @@ public class TagController {
     @Autowired
     private TagMapper tagMapper;
 
+    @Autowired
+    private TagDictionaryService tagDictionary;
+
+    @Autowired
+    private PublicContentCache publicContentCache;
+
+    @Autowired
+    private TagPrefixIndex tagIndex;
+
+    @Autowired
+    private SnippetFacetIndex facetIndex;
+
+    private static final int MAX_SUGGESTIONS = 50;
+
     /**
      * Retrieves all tags.
      *
@@ -47,6 +68,7 @@ public class TagController {
     public ResponseEntity<TagDTO> createTag(@Valid @RequestBody TagDTO tagDTO) {
         Tag tag = tagMapper.toEntity(tagDTO);
         Tag savedTag = tagRepository.save(tag);
+        tagIndex.put(savedTag.getId(), savedTag.getName());
         TagDTO savedTagDTO = tagMapper.toDTO(savedTag);
         return ResponseEntity.ok(savedTagDTO);
     }
@@ -76,8 +98,12 @@ public class TagController {
     public ResponseEntity<TagDTO> updateTag(@PathVariable Long id, @Valid @RequestBody TagDTO tagDTO) {
         return tagRepository.findById(id)
                 .map(existingTag -> {
+                    tagDictionary.evict(existingTag.getName());
                     existingTag.setName(tagDTO.getName());
                     Tag updatedTag = tagRepository.save(existingTag);
+                    tagIndex.put(updatedTag.getId(), updatedTag.getName());
+                    facetIndex.renameTag(updatedTag.getId(), updatedTag.getName());
+                    publicContentCache.tagsChanged();
                     return tagMapper.toDTO(updatedTag);
                 })
                 .map(ResponseEntity::ok)
@@ -92,10 +118,15 @@ public class TagController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTag(@PathVariable Long id) {
-        if(!tagRepository.existsById(id)) {
+        Optional<Tag> tag = tagRepository.findById(id);
+        if(tag.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
         tagRepository.deleteById(id);
+        tagDictionary.evict(tag.get().getName());
+        tagIndex.remove(id);
+        facetIndex.removeTag(id);
+        publicContentCache.tagsChanged();
         return ResponseEntity.noContent().build();
     }
 
@@ -111,4 +142,31 @@ public class TagController {
                                   .collect(Collectors.toList());
         return ResponseEntity.ok(tagDTOs);
     }
-}
\ No newline at end of file
+
+    /**
+     * Suggests tags whose name, or a segment of it, starts with the prefix,
+     * most used first. Served from memory without touching the database.
+     *
+     * @param prefix what the user has typed so far
+     * @param limit the maximum number of suggestions
+     * @return the suggestions, best first
+     */
+    @GetMapping("/autocomplete")
+    @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
+    public ResponseEntity<List<TagSuggestionDTO>> autocomplete(@RequestParam String prefix,
+                                                               @RequestParam(defaultValue = "10") int limit) {
+        int max = Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        if (!tagIndex.isReady()) {
+            // Only while the index loads at startup: unranked prefix matches from the database
+            List<TagSuggestionDTO> fallback = prefix.isBlank() ? Collections.emptyList() :
+                tagRepository.findByNameStartingWithIgnoreCaseOrderByNameAsc(prefix.trim(), PageRequest.of(0, max)).stream()
+                                  .map(tag -> new TagSuggestionDTO(tag.getId(), tag.getName(), 0))
+                                  .collect(Collectors.toList());
+            return ResponseEntity.ok(fallback);
+        }
+        List<TagSuggestionDTO> suggestions = tagIndex.suggest(prefix, max).stream()
+                                  .map(suggestion -> new TagSuggestionDTO(suggestion.id(), suggestion.name(), suggestion.usage()))
+                                  .collect(Collectors.toList());
+        return ResponseEntity.ok(suggestions);
+    }
+}
@@ -58,7 +58,7 @@ public class UserController {
             .orElseThrow(() -> new RuntimeException("User not found"));
         
         if (passwordEncoder.matches(loginRequest.getPassword(), user.getPasswordHash())) {
-            String token = jwtUtil.generateToken(user.getUsername());
+            String token = jwtUtil.generateToken(user.getId(), user.getUsername(), user.getRoles());
             UserDTO userDTO = convertToDTO(user);
             JwtResponse response = new JwtResponse(token, userDTO);
             return ResponseEntity.ok(response);
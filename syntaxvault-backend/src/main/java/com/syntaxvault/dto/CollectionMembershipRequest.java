@@ -0,0 +1,14 @@
+package com.syntaxvault.dto;
+
+import java.util.Set;
+import lombok.Data;
+
+@Data
+public class CollectionMembershipRequest {
+
+    // Snippet IDs to add to the collection; IDs already in it are ignored
+    private Set<Long> add;
+
+    // Snippet IDs to remove from the collection; IDs not in it are ignored
+    private Set<Long> remove;
+}
@@ -0,0 +1,12 @@
+package com.syntaxvault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CollectionMembershipResult {
+    private Long collectionId;
+    private int added;   // Memberships actually created
+    private int removed; // Memberships actually deleted
+}
@@ -0,0 +1,13 @@
+package com.syntaxvault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCount {
+    private String value;
+    private int count;
+}
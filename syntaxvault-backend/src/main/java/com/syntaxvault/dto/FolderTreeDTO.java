@@ -0,0 +1,15 @@
+package com.syntaxvault.dto;
+
+import lombok.Data;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class FolderTreeDTO {
+    private Long id;
+    private String name;
+    private Long parentId;
+    private String path;
+    private long snippetCount; // Snippets directly in this folder
+    private List<FolderTreeDTO> children = new ArrayList<>(); // Ordered by path
+}
@@ -0,0 +1,22 @@
+package com.syntaxvault.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// A likely near-duplicate of a snippet; similarity is the estimated Jaccard similarity of the contents
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SnippetDuplicateDTO {
+    private Long id;
+    private String title;
+    private String language;
+    private String username;
+
+    @JsonProperty("isPublic")
+    private boolean isPublic;
+
+    private double similarity;
+}
@@ -0,0 +1,14 @@
+package com.syntaxvault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnippetFacets {
+    private List<FacetCount> languages; // Every language among the matches, most frequent first
+    private List<FacetCount> tags; // The most frequent tags among the matches
+}
@@ -0,0 +1,22 @@
+package com.syntaxvault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class SnippetImportResult {
+    private int received;
+    private int imported;
+    private List<Failure> failures = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Failure {
+        private int index; // Zero-based position of the item in the submitted body
+        private String error;
+    }
+}
@@ -0,0 +1,12 @@
+package com.syntaxvault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SnippetPage {
+    private List<SnippetDTO> items;
+    private String nextCursor; // Opaque token for the following page, null on the last page
+}
@@ -0,0 +1,12 @@
+package com.syntaxvault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SnippetSearchResult {
+    private List<SnippetDTO> items;
+    private SnippetFacets facets; // Counted over all items
+}
@@ -0,0 +1,21 @@
+package com.syntaxvault.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import lombok.Data;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// List view of a snippet; the content is fetched separately by id
+@Data
+public class SnippetSummaryDTO {
+    private Long id;
+    private String title;
+    private String language;
+    private LocalDateTime creationDate;
+    private LocalDateTime lastModifiedDate;
+    private String username; // Owner's username
+    private List<String> tags;
+
+    @JsonProperty("isPublic")
+    private boolean isPublic;
+}
@@ -0,0 +1,12 @@
+package com.syntaxvault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SnippetSummaryPage {
+    private List<SnippetSummaryDTO> items;
+    private String nextCursor; // Opaque token for the following page, null on the last page
+}
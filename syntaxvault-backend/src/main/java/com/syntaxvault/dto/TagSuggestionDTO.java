@@ -0,0 +1,14 @@
+package com.syntaxvault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagSuggestionDTO {
+    private Long id;
+    private String name;
+    private int usageCount; // Snippets carrying the tag, refreshed in the background
+}
@@ -0,0 +1,29 @@
+package com.syntaxvault.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notification that an aggregate was created, updated or deleted. Events
+ * carry no state: subscribers read the current row, so a redelivered or
+ * reordered event converges on the same result.
+ *
+ * @param outboxId id of the outbox row, increasing in commit order per writer
+ * @param aggregate what kind of object changed
+ * @param aggregateId id of the object that changed
+ * @param type what happened to it
+ * @param occurredAt when the change was recorded
+ */
+public record ChangeEvent(long outboxId, Aggregate aggregate, long aggregateId, Type type, LocalDateTime occurredAt) {
+
+    public enum Aggregate {
+        SNIPPET,
+        FOLDER,
+        COLLECTION
+    }
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,202 @@
+package com.syntaxvault.events;
+
+import com.syntaxvault.model.ChangeOutboxEntry;
+import com.syntaxvault.repository.ChangeOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Reads Change_Outbox on a background thread and hands the events to every
+ * ChangeEventSubscriber.
+ *
+ * Subscribers keep per-instance state, so every instance reads every event.
+ * Each one keeps its own high-water mark, the highest outbox id it has
+ * delivered, and rows are left in place for the other instances until the
+ * retention sweep deletes them.
+ *
+ * Ids are assigned at insert, not at commit, so a row can become visible
+ * after higher ids were already read. Ids skipped over by the mark are kept
+ * as pending and looked up again with every batch until they show up, or
+ * until the gap timeout treats them as rolled back. At most one batch of
+ * ids is tracked this way; a wider gap, such as a rolled back bulk import,
+ * is skipped. A starting instance begins just below the oldest row of the
+ * last gap timeout, since its subscribers rebuild from the tables anyway.
+ *
+ * If a subscriber throws, the transaction rolls back, the mark stays where it
+ * was, and the batch is retried with exponential backoff.
+ */
+@Component
+public class ChangeEventDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeEventDispatcher.class);
+
+    private static final long MAX_BACKOFF_SECONDS = 300;
+
+    @Autowired
+    private ChangeOutboxRepository outboxRepository;
+
+    @Autowired
+    private List<ChangeEventSubscriber> subscribers;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${syntaxvault.outbox.dispatcher.enabled:true}")
+    private boolean enabled;
+
+    @Value("${syntaxvault.outbox.dispatcher.batch-size:200}")
+    private int batchSize;
+
+    @Value("${syntaxvault.outbox.dispatcher.gap-timeout:PT5M}")
+    private Duration gapTimeout;
+
+    @Value("${syntaxvault.outbox.retention:PT24H}")
+    private Duration retention;
+
+    // A single drain at a time per instance; wake-ups during a drain collapse into one more pass
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "outbox-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    // Only touched on the dispatcher thread
+    private long highWaterMark = -1;
+
+    // Ids below the mark that were not visible yet, with the time (System.nanoTime) they were first missed
+    private final Map<Long, Long> pending = new TreeMap<>();
+
+    private int failures;
+
+    private long retryAt;
+
+    public void wakeUp() {
+        if (enabled && scheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                scheduled.set(false);
+                drain();
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${syntaxvault.outbox.dispatcher.poll-interval:PT5S}")
+    public void poll() {
+        wakeUp();
+    }
+
+    // Deletes rows every instance has had the chance to read; must stay well above the gap timeout
+    @Scheduled(fixedDelayString = "${syntaxvault.outbox.retention-sweep-interval:PT10M}")
+    public void sweep() {
+        if (!enabled) {
+            return;
+        }
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Integer deleted = tx.execute(status -> outboxRepository.deleteOlderThan(retention.toSeconds()));
+        if (deleted != null && deleted > 0) {
+            log.debug("Deleted {} change outbox rows older than {}", deleted, retention);
+        }
+    }
+
+    // Delivers batches until nothing new is visible
+    public void drain() {
+        if (failures > 0 && System.nanoTime() - retryAt < 0) {
+            return;
+        }
+        try {
+            while (dispatchBatch() == batchSize) {
+                // A full batch means more may be waiting
+            }
+        } catch (RuntimeException e) {
+            log.warn("Change outbox dispatch failed", e);
+        }
+    }
+
+    /**
+     * Reads and delivers the next batch after the high-water mark. Returns the
+     * number of events delivered, or 0 when the batch failed and will be retried.
+     */
+    public int dispatchBatch() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            List<ChangeEvent> delivered = tx.execute(status -> {
+                if (highWaterMark < 0) {
+                    highWaterMark = outboxRepository.findStartingMark(gapTimeout.toSeconds());
+                }
+                expirePending();
+                List<ChangeEvent> events = outboxRepository.findBatch(
+                        highWaterMark, pending.keySet().toArray(new Long[0]), batchSize).stream()
+                    .map(ChangeOutboxEntry::toEvent)
+                    .collect(Collectors.toList());
+                if (!events.isEmpty()) {
+                    for (ChangeEventSubscriber subscriber : subscribers) {
+                        subscriber.onChanges(events);
+                    }
+                }
+                return events;
+            });
+            failures = 0;
+            if (delivered == null) {
+                return 0;
+            }
+            advance(delivered);
+            return delivered.size();
+        } catch (RuntimeException e) {
+            // Nothing was advanced; back off so a failing batch does not spin
+            failures++;
+            long backoff = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(failures - 1, 30));
+            retryAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(backoff);
+            log.warn("Delivering change events failed {} time(s), retrying in {}s", failures, backoff, e);
+            return 0;
+        }
+    }
+
+    // Moves the mark to the highest delivered id and remembers the ids it skipped, up to one batch of them
+    private void advance(List<ChangeEvent> events) {
+        long now = System.nanoTime();
+        for (ChangeEvent event : events) {
+            long id = event.outboxId();
+            if (id <= highWaterMark) {
+                pending.remove(id);
+                continue;
+            }
+            long gap = id - highWaterMark - 1;
+            if (gap <= batchSize - pending.size()) {
+                for (long missing = highWaterMark + 1; missing < id; missing++) {
+                    pending.put(missing, now);
+                }
+            } else {
+                log.debug("Not waiting on {} change outbox ids skipped below {}", gap, id);
+            }
+            highWaterMark = id;
+        }
+    }
+
+    // Ids missing for longer than the gap timeout belong to rolled back transactions
+    private void expirePending() {
+        long cutoff = System.nanoTime() - gapTimeout.toNanos();
+        pending.values().removeIf(firstMissed -> firstMissed - cutoff < 0);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
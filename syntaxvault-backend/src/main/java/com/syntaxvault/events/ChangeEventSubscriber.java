@@ -0,0 +1,18 @@
+package com.syntaxvault.events;
+
+import java.util.List;
+
+/**
+ * Receives change events from ChangeEventDispatcher, off the request path.
+ * Any bean implementing this interface is subscribed.
+ *
+ * Every instance receives every event. Delivery is at least once: a batch is
+ * redelivered, to every subscriber, when any subscriber throws, and a
+ * restarted instance receives the most recent events again. Implementations
+ * must therefore be idempotent. They run inside the dispatcher's transaction,
+ * so they can read the current state of the changed rows.
+ */
+public interface ChangeEventSubscriber {
+
+    void onChanges(List<ChangeEvent> events);
+}
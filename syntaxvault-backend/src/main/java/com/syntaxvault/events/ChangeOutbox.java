@@ -0,0 +1,49 @@
+package com.syntaxvault.events;
+
+import com.syntaxvault.repository.ChangeOutboxRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.util.Collection;
+
+/**
+ * Records change events in the Change_Outbox table. Must be called inside the
+ * transaction that makes the change, so the event is committed or rolled back
+ * together with it. The dispatcher is woken up once that transaction commits.
+ */
+@Component
+public class ChangeOutbox {
+
+    @Autowired
+    private ChangeOutboxRepository outboxRepository;
+
+    @Autowired
+    private ChangeEventDispatcher dispatcher;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(ChangeEvent.Aggregate aggregate, Long id, ChangeEvent.Type type) {
+        outboxRepository.record(aggregate.name(), id, type.name());
+        wakeDispatcherAfterCommit();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(ChangeEvent.Aggregate aggregate, Collection<Long> ids, ChangeEvent.Type type) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        outboxRepository.recordAll(aggregate.name(), ids.toArray(new Long[0]), type.name());
+        wakeDispatcherAfterCommit();
+    }
+
+    private void wakeDispatcherAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                dispatcher.wakeUp();
+            }
+        });
+    }
+}
@@ -1,11 +1,11 @@
 package com.syntaxvault.filter;
 
+import com.syntaxvault.security.AuthenticatedUser;
+import com.syntaxvault.service.UserService;
 import com.syntaxvault.util.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import jakarta.servlet.FilterChain;
@@ -13,17 +13,18 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.Set;
 import org.springframework.lang.NonNull;
 
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 
-    private final UserDetailsService userDetailsService;
+    private final UserService userService;
     private final JwtUtil jwtUtil;
 
     @Autowired
-    public JwtRequestFilter(UserDetailsService userDetailsService, JwtUtil jwtUtil) {
-        this.userDetailsService = userDetailsService;
+    public JwtRequestFilter(UserService userService, JwtUtil jwtUtil) {
+        this.userService = userService;
         this.jwtUtil = jwtUtil;
     }
 
@@ -33,28 +34,21 @@ public class JwtRequestFilter extends OncePerRequestFilter {
                                     @NonNull FilterChain chain)
                                     throws ServletException, IOException {
         final String authorizationHeader = request.getHeader("Authorization");
-        
-        String username = null;
-        String jwt = null;
 
-        // Extract JWT token from Authorization header
+        // Extract and verify the JWT once; expired, forged or malformed tokens yield nothing
+        JwtUtil.VerifiedToken token = null;
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                // Handle exceptions such as expired or malformed tokens
-            }
+            token = jwtUtil.verify(authorizationHeader.substring(7)).orElse(null);
         }
 
-        // Validate token and set authentication
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-            
-            if (jwtUtil.validateToken(jwt, userDetails.getUsername())) {
-                UsernamePasswordAuthenticationToken authToken = 
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails, null, userDetails.getAuthorities());
+        // Set authentication; the principal comes straight from the token claims when present
+        if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            AuthenticatedUser user = token.userId() != null && token.roles() != null
+                    ? new AuthenticatedUser(token.userId(), token.username(), Set.copyOf(token.roles()))
+                    : userService.findAuthenticatedUser(token.username()).orElse(null);
+            if (user != null) {
+                UsernamePasswordAuthenticationToken authToken =
+                        new UsernamePasswordAuthenticationToken(user, null, user.authorities());
                 SecurityContextHolder.getContext().setAuthentication(authToken);
             }
         }
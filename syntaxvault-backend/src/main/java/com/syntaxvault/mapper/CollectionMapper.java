@@ -4,6 +4,7 @@ import com.syntaxvault.dto.CollectionDTO;
 import com.syntaxvault.model.Collection;
 import org.springframework.stereotype.Component;
 
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Component
@@ -29,6 +30,17 @@ public class CollectionMapper {
         return dto;
     }
 
+    // For list views: members come from CollectionRepository.findMembershipsByIds instead of the lazy set
+    public CollectionDTO toDTO(Collection collection, Set<Long> snippetIds) {
+        CollectionDTO dto = new CollectionDTO();
+        dto.setId(collection.getId());
+        dto.setName(collection.getName());
+        dto.setUsername(collection.getUser().getUsername());
+        dto.setSnippetIds(snippetIds);
+        dto.setIsPublic(collection.getIsPublic());
+        return dto;
+    }
+
     // If needed, add methods to map from DTO to Entity
     // public Collection toEntity(CollectionDTO dto) {
     //     // Implementation here
@@ -37,4 +37,29 @@ public class FolderMapper {
         
         return dto;
     }
-} 
\ No newline at end of file
+
+    // Same as toDTO but without descending into subfolders, which would load the whole subtree
+    public FolderDTO toShallowDTO(Folder folder) {
+        if (folder == null) {
+            return null;
+        }
+
+        FolderDTO dto = new FolderDTO();
+        dto.setId(folder.getId());
+        dto.setName(folder.getName());
+        dto.setPath(folder.getPath());
+        dto.setUsername(folder.getUser().getUsername());
+
+        if (folder.getParent() != null) {
+            dto.setParentId(folder.getParent().getId());
+        }
+
+        if (folder.getSnippets() != null) {
+            dto.setSnippetIds(folder.getSnippets().stream()
+                .map(snippet -> snippet.getId())
+                .collect(Collectors.toSet()));
+        }
+
+        return dto;
+    }
+}
@@ -2,8 +2,11 @@
 package com.syntaxvault.mapper;
 
 import com.syntaxvault.dto.SnippetDTO;
+import com.syntaxvault.dto.SnippetSummaryDTO;
+import com.syntaxvault.repository.SnippetSummaryView;
 import com.syntaxvault.model.Snippet;
 import org.springframework.stereotype.Component;
+import java.util.List;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -18,6 +21,23 @@ public class SnippetMapper {
     }
 
     public SnippetDTO toDTO(Snippet snippet) {
+        SnippetDTO dto = toDTOWithoutUser(snippet);
+        
+        // Handle the case where the user might not be initialized
+        if (snippet.getUser() != null && snippet.getUser().getUsername() != null) {
+            dto.setUsername(snippet.getUser().getUsername());
+        }
+        return dto;
+    }
+
+    // For callers that already know the owner's username; leaves a lazy user unloaded
+    public SnippetDTO toDTO(Snippet snippet, String username) {
+        SnippetDTO dto = toDTOWithoutUser(snippet);
+        dto.setUsername(username);
+        return dto;
+    }
+
+    private SnippetDTO toDTOWithoutUser(Snippet snippet) {
         SnippetDTO dto = new SnippetDTO();
         dto.setId(snippet.getId());
         dto.setTitle(snippet.getTitle());
@@ -28,11 +48,6 @@ public class SnippetMapper {
         dto.setLastModifiedDate(snippet.getLastModifiedDate());
         dto.setPublic(snippet.getIsPublic());  // Ensure correct method
         
-        // Handle the case where the user might not be initialized
-        if (snippet.getUser() != null && snippet.getUser().getUsername() != null) {
-            dto.setUsername(snippet.getUser().getUsername());
-        }
-        
         if (snippet.getTags() != null) {
             dto.setTags(snippet.getTags().stream()
                 .map(tagMapper::toDTO)
@@ -42,5 +57,18 @@ public class SnippetMapper {
         return dto;
     }
 
+    public SnippetSummaryDTO toSummaryDTO(SnippetSummaryView view) {
+        SnippetSummaryDTO dto = new SnippetSummaryDTO();
+        dto.setId(view.getId());
+        dto.setTitle(view.getTitle());
+        dto.setLanguage(view.getLanguage());
+        dto.setCreationDate(view.getCreationDate());
+        dto.setLastModifiedDate(view.getLastModifiedDate());
+        dto.setUsername(view.getUsername());
+        dto.setPublic(Boolean.TRUE.equals(view.getIsPublic()));
+        dto.setTags(view.getTags() != null ? List.of(view.getTags()) : List.of());
+        return dto;
+    }
+
     // Existing methods...
 }
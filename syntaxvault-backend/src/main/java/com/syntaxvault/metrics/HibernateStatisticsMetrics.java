@@ -0,0 +1,46 @@
+package com.syntaxvault.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.stat.Statistics;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes Hibernate's session factory statistics as counters. Needs
+ * hibernate.generate_statistics, otherwise every value stays at zero.
+ */
+public class HibernateStatisticsMetrics implements MeterBinder {
+
+    private final Statistics statistics;
+
+    public HibernateStatisticsMetrics(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "hibernate.statements", "JDBC statements prepared", Statistics::getPrepareStatementCount);
+        counter(registry, "hibernate.query.executions", "HQL and native queries executed", Statistics::getQueryExecutionCount);
+        counter(registry, "hibernate.entities.loads", "Entities loaded from the database", Statistics::getEntityLoadCount);
+        counter(registry, "hibernate.entities.fetches", "Entities fetched lazily", Statistics::getEntityFetchCount);
+        counter(registry, "hibernate.collections.fetches", "Collections fetched lazily", Statistics::getCollectionFetchCount);
+        counter(registry, "hibernate.flushes", "Session flushes", Statistics::getFlushCount);
+        counter(registry, "hibernate.transactions", "Transactions completed", Statistics::getTransactionCount);
+
+        FunctionCounter.builder("hibernate.second.level.cache.requests", statistics, Statistics::getSecondLevelCacheHitCount)
+            .description("Second-level cache lookups").tag("result", "hit").register(registry);
+        FunctionCounter.builder("hibernate.second.level.cache.requests", statistics, Statistics::getSecondLevelCacheMissCount)
+            .description("Second-level cache lookups").tag("result", "miss").register(registry);
+        FunctionCounter.builder("hibernate.query.cache.requests", statistics, Statistics::getQueryCacheHitCount)
+            .description("Query cache lookups").tag("result", "hit").register(registry);
+        FunctionCounter.builder("hibernate.query.cache.requests", statistics, Statistics::getQueryCacheMissCount)
+            .description("Query cache lookups").tag("result", "miss").register(registry);
+    }
+
+    private void counter(MeterRegistry registry, String name, String description, ToDoubleFunction<Statistics> value) {
+        FunctionCounter.builder(name, statistics, value)
+            .description(description)
+            .register(registry);
+    }
+}
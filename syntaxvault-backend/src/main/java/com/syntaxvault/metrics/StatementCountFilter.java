@@ -0,0 +1,49 @@
+package com.syntaxvault.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import java.io.IOException;
+
+/**
+ * Records how many statements each request issued, tagged like
+ * http.server.requests with the method and the matched URI template, so
+ * N+1 regressions show up per endpoint.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class StatementCountFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        StatementCounter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = StatementCounter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("http.server.requests.statements")
+                .description("JDBC statements prepared by Hibernate per request")
+                .tag("method", request.getMethod())
+                .tag("uri", pattern != null ? pattern.toString() : "UNKNOWN")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(1000.0)
+                .register(meterRegistry)
+                .record(statements);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.syntaxvault.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the JDBC statements Hibernate prepares on the current thread while
+ * a count is open. Installed as Hibernate's statement inspector, so it sees
+ * HQL, criteria, native and repository-generated queries alike.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CURRENT = new ThreadLocal<>();
+
+    public static void start() {
+        CURRENT.set(new int[1]);
+    }
+
+    // Returns the number of statements since start() and closes the count
+    public static int stop() {
+        int[] count = CURRENT.get();
+        CURRENT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = CURRENT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,38 @@
+package com.syntaxvault.model;
+
+import com.syntaxvault.events.ChangeEvent;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@Setter
+@Entity
+@Table(name = "Change_Outbox")
+@NoArgsConstructor
+public class ChangeOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "aggregate_type", nullable = false, length = 32)
+    private ChangeEvent.Aggregate aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private ChangeEvent.Type changeType;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public ChangeEvent toEvent() {
+        return new ChangeEvent(id, aggregateType, aggregateId, changeType, createdAt);
+    }
+}
@@ -0,0 +1,51 @@
+package com.syntaxvault.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Codecs for compressed snippet content. The name of the codec is stored with
+ * each compressed row, so existing constants must never be renamed.
+ */
+public enum ContentCodec {
+
+    DEFLATE {
+        @Override
+        public byte[] compress(String content) {
+            byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4 + 64);
+            try (DeflaterOutputStream stream = new DeflaterOutputStream(out, deflater, 8192)) {
+                stream.write(raw);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                deflater.end();
+            }
+            return out.toByteArray();
+        }
+
+        @Override
+        public String decompress(byte[] data) {
+            Inflater inflater = new Inflater();
+            try (InflaterInputStream stream = new InflaterInputStream(new ByteArrayInputStream(data), inflater, 8192)) {
+                return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Corrupt compressed snippet content", e);
+            } finally {
+                inflater.end();
+            }
+        }
+    };
+
+    public abstract byte[] compress(String content);
+
+    public abstract String decompress(byte[] data);
+}
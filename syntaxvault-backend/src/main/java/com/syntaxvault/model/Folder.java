@@ -3,11 +3,14 @@ package com.syntaxvault.model;
 import jakarta.persistence.*;
 import java.util.Set;
 import java.util.HashSet;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-@Data
+// Not @Data: value equality over parent and subfolders recurses through the tree and initializes lazy sets
+@Getter
+@Setter
 @Entity
 @Table(name = "Folders")
 @NoArgsConstructor
@@ -47,6 +50,11 @@ public class Folder {
         }
     }
 
+    // LIKE pattern matching the paths of all descendants, with wildcards in the path escaped
+    public String descendantPathPattern() {
+        return path.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "/%";
+    }
+
     // Helper method to add a subfolder
     public void addSubfolder(Folder subfolder) {
         subfolders.add(subfolder);
@@ -3,6 +3,9 @@ package com.syntaxvault.model;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnTransformer;
+import org.hibernate.annotations.DynamicUpdate;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Set;
 import lombok.Getter;
@@ -13,13 +16,17 @@ import lombok.AllArgsConstructor;
 @Getter
 @Setter
 @Entity
+// Updates only write changed columns, so moving or publishing a snippet never rewrites its content or content_vector
+@DynamicUpdate
 @Table(name = "Snippets")
+@EntityListeners(SnippetContentListener.class)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Snippet {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "snippet_seq")
+    @SequenceGenerator(name = "snippet_seq", sequenceName = "snippets_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 255)
@@ -28,9 +35,34 @@ public class Snippet {
     @Column(columnDefinition = "TEXT")
     private String description;
 
-    @Column(columnDefinition = "TEXT", nullable = false)
+    // Plain content; NULL while the row is stored compressed (see contentCodec)
+    @Column(columnDefinition = "TEXT")
     private String content;
 
+    // Codec of compressedContent, or null when the content is stored plain
+    @Enumerated(EnumType.STRING)
+    @Column(name = "content_codec", length = 16)
+    private ContentCodec contentCodec;
+
+    // Only fetched when getContent needs the bytes; see SnippetCompressedContent
+    @OneToOne(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @JoinColumn(name = "compressed_content_id")
+    private SnippetCompressedContent compressedContent;
+
+    // Decompressed on first read and kept for the lifetime of the entity
+    @Transient
+    private String inflatedContent;
+
+    // Text of compressed content for the content_vector column, set by SnippetContentListener when the
+    // content is written and never read back, since search_vector cannot see inside the compressed bytes
+    @Column(name = "content_vector", columnDefinition = "tsvector")
+    @ColumnTransformer(read = "CAST(NULL AS text)", write = "to_tsvector('english', ?)")
+    private String searchContent;
+
+    // MinHash signature of the content for near-duplicate lookups (see MinHash); null without tokens
+    @Column(name = "content_minhash")
+    private byte[] contentMinhash;
+
     @Column(nullable = false, length = 50)
     private String language;
 
@@ -61,6 +93,53 @@ public class Snippet {
     @JoinColumn(name = "folder_id")
     private Folder folder;
 
+    public String getContent() {
+        if (contentCodec == null) {
+            return content;
+        }
+        if (inflatedContent == null) {
+            inflatedContent = contentCodec.decompress(compressedContent.getContent());
+        }
+        return inflatedContent;
+    }
+
+    public byte[] getCompressedContent() {
+        return compressedContent != null ? compressedContent.getContent() : null;
+    }
+
+    public void setCompressedContent(byte[] compressedContent) {
+        this.compressedContent = compressedContent != null ? new SnippetCompressedContent(compressedContent) : null;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+        this.contentCodec = null;
+        this.compressedContent = null;
+        this.inflatedContent = null;
+    }
+
+    /**
+     * Moves plain content into compressed storage when its UTF-8 form is at
+     * least threshold bytes and the codec actually makes it smaller.
+     */
+    public void compressContent(ContentCodec codec, int threshold) {
+        // A char takes at most three UTF-8 bytes, so short strings need not be encoded to be ruled out
+        if (contentCodec != null || content == null || content.length() * 3L < threshold) {
+            return;
+        }
+        byte[] raw = content.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < threshold) {
+            return;
+        }
+        byte[] packed = codec.compress(content);
+        if (packed.length < raw.length) {
+            this.inflatedContent = content;
+            this.content = null;
+            this.contentCodec = codec;
+            this.compressedContent = new SnippetCompressedContent(packed);
+        }
+    }
+
     public boolean getIsPublic() {
         return isPublic;
     }
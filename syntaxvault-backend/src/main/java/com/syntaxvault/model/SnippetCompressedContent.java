@@ -0,0 +1,36 @@
+package com.syntaxvault.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Compressed content of one snippet, kept out of the Snippets table so that
+ * loading or scanning snippets never reads the bytes. Rows are removed by
+ * database triggers when their snippet is deleted or stored plain again (see V12).
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "Snippet_Compressed_Contents")
+// A hydrated page initializes its compressed contents together rather than one query each
+@BatchSize(size = 50)
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnippetCompressedContent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "snippet_compressed_content_seq")
+    @SequenceGenerator(name = "snippet_compressed_content_seq", sequenceName = "snippet_compressed_contents_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private byte[] content;
+
+    public SnippetCompressedContent(byte[] content) {
+        this.content = content;
+    }
+}
@@ -0,0 +1,58 @@
+package com.syntaxvault.model;
+
+import jakarta.persistence.PrePersist;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Compresses large snippet content just before it is written, so callers keep
+ * working with plain strings through Snippet.getContent/setContent, and hands
+ * the text of compressed rows to their content_vector column for full-text search.
+ */
+@Component
+public class SnippetContentListener {
+
+    // to_tsvector rejects documents whose vector passes 1 MB, so only this much content is indexed
+    // (the generated search_vector of plain rows applies the same cap, see V8)
+    public static final int SEARCH_CONTENT_MAX_CHARS = 100_000;
+
+    @Value("${syntaxvault.snippets.content-compression.enabled:true}")
+    private boolean enabled;
+
+    @Value("${syntaxvault.snippets.content-compression.threshold:16384}")
+    private int threshold;
+
+    @Value("${syntaxvault.snippets.content-compression.codec:DEFLATE}")
+    private ContentCodec codec;
+
+    @PrePersist
+    public void beforeInsert(Snippet snippet) {
+        prepareContent(snippet);
+    }
+
+    /**
+     * Compresses new content and sets the text its content_vector is built
+     * from. Runs on insert, and is called by the service after setContent on an
+     * existing snippet; other updates leave both columns alone (Snippet is
+     * updated dynamically). It has to run before the flush: the new
+     * SnippetCompressedContent is saved by the persist cascade, which runs
+     * before any @PreUpdate callback.
+     */
+    public void prepareContent(Snippet snippet) {
+        if (enabled) {
+            snippet.compressContent(codec, threshold);
+        }
+        snippet.setSearchContent(snippet.getContentCodec() != null ? searchText(snippet.getContent()) : null);
+    }
+
+    static String searchText(String content) {
+        if (content.length() <= SEARCH_CONTENT_MAX_CHARS) {
+            return content;
+        }
+        int end = SEARCH_CONTENT_MAX_CHARS;
+        if (Character.isHighSurrogate(content.charAt(end - 1))) {
+            end--;
+        }
+        return content.substring(0, end);
+    }
+}
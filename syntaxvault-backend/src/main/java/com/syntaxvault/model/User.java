@@ -2,6 +2,7 @@ package com.syntaxvault.model;
 
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalDateTime;
 import java.util.Set;
 import lombok.Getter;
@@ -36,7 +37,9 @@ public class User {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    // Batched so a list of rows owned by different users loads roles in one query, not one per user
     @ElementCollection(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @CollectionTable(name = "User_Roles", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "role")
     private Set<String> roles;
@@ -0,0 +1,49 @@
+package com.syntaxvault.repository;
+
+import com.syntaxvault.model.ChangeOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.util.List;
+
+public interface ChangeOutboxRepository extends JpaRepository<ChangeOutboxEntry, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO Change_Outbox (aggregate_type, aggregate_id, change_type) " +
+                   "VALUES (:aggregateType, :aggregateId, :changeType)",
+           nativeQuery = true)
+    int record(@Param("aggregateType") String aggregateType,
+               @Param("aggregateId") Long aggregateId,
+               @Param("changeType") String changeType);
+
+    // One statement for any number of changes, e.g. a bulk import
+    @Modifying
+    @Query(value = "INSERT INTO Change_Outbox (aggregate_type, aggregate_id, change_type) " +
+                   "SELECT :aggregateType, unnest(CAST(:aggregateIds AS bigint[])), :changeType",
+           nativeQuery = true)
+    int recordAll(@Param("aggregateType") String aggregateType,
+                  @Param("aggregateIds") Long[] aggregateIds,
+                  @Param("changeType") String changeType);
+
+    // The next rows after an instance's high-water mark, plus earlier ids it is still waiting on to commit
+    @Query(value = "SELECT * FROM Change_Outbox WHERE id > :after OR id = ANY(CAST(:pending AS bigint[])) " +
+                   "ORDER BY id LIMIT :limit",
+           nativeQuery = true)
+    List<ChangeOutboxEntry> findBatch(@Param("after") long after,
+                                      @Param("pending") Long[] pending,
+                                      @Param("limit") int limit);
+
+    // Where a starting instance picks up: just below the oldest row recorded within the given window,
+    // or the last id handed out when the window is empty, so swept rows never count as missing
+    @Query(value = "SELECT coalesce(" +
+                   "(SELECT min(id) - 1 FROM Change_Outbox WHERE created_at >= now() - make_interval(secs => :seconds)), " +
+                   "(SELECT CASE WHEN is_called THEN last_value ELSE last_value - 1 END FROM change_outbox_id_seq))",
+           nativeQuery = true)
+    long findStartingMark(@Param("seconds") long seconds);
+
+    @Modifying
+    @Query(value = "DELETE FROM Change_Outbox WHERE created_at < now() - make_interval(secs => :seconds)",
+           nativeQuery = true)
+    int deleteOlderThan(@Param("seconds") long seconds);
+}
@@ -2,18 +2,75 @@ package com.syntaxvault.repository;
 
 import com.syntaxvault.model.Collection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CollectionRepository extends JpaRepository<Collection, Long> {
-    List<Collection> findByUserUsername(String username);
+    @Query("SELECT c FROM Collection c JOIN FETCH c.user WHERE c.user.id = :userId ORDER BY c.id")
+    List<Collection> findByUserIdWithUser(@Param("userId") Long userId);
+
+    @Query("SELECT c FROM Collection c JOIN FETCH c.user WHERE c.isPublic = true ORDER BY c.id")
+    List<Collection> findPublicWithUser();
+
+    // (collectionId, snippetId) pairs of the given collections, so list views map members without loading snippets
+    @Query("SELECT c.id, s.id FROM Collection c JOIN c.snippets s WHERE c.id IN :ids")
+    List<Object[]> findMembershipsByIds(@Param("ids") java.util.Collection<Long> ids);
     
     @Query("SELECT c FROM Collection c LEFT JOIN FETCH c.user LEFT JOIN FETCH c.snippets WHERE c.id = :id")
     Collection findByIdWithUserAndSnippets(@Param("id") Long id);
 
-    List<Collection> findByIsPublicTrue();
+    @Query("SELECT c FROM Collection c WHERE c.user.id = :userId ORDER BY c.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Collection> streamByUserId(@Param("userId") Long userId);
+
+    // (collectionId, snippetId) pairs of every membership in the user's collections
+    @Query("SELECT c.id, s.id FROM Collection c JOIN c.snippets s WHERE c.user.id = :userId ORDER BY c.id, s.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<Object[]> streamMembershipsByUserId(@Param("userId") Long userId);
     
     Optional<Collection> findByIdAndIsPublicTrue(Long id);
+
+    @Query("SELECT s.id FROM Collection c JOIN c.snippets s WHERE c.id = :id")
+    List<Long> findSnippetIdsById(@Param("id") Long id);
+
+    @Query("SELECT count(s) FROM Collection c JOIN c.snippets s WHERE c.id = :id AND s.isPublic = false")
+    long countPrivateSnippetsById(@Param("id") Long id);
+
+    // Versions for conditional GETs; last_modified_date is kept current by triggers (see V14)
+    String VERSION_COLUMNS =
+        "SELECT count(*) AS \"count\", max(c.last_modified_date) AS \"lastModified\", " +
+        "sum(CAST(extract(epoch FROM c.last_modified_date) * 1000000 AS bigint)) AS \"checksum\", " +
+        "CAST(NULL AS bigint) AS \"tagVersion\" FROM Collections c ";
+
+    @Query(value = VERSION_COLUMNS + "WHERE c.user_id = :userId", nativeQuery = true)
+    ContentVersionView findVersionByUserId(@Param("userId") Long userId);
+
+    @Query(value = VERSION_COLUMNS + "WHERE c.is_public", nativeQuery = true)
+    ContentVersionView findPublicVersion();
+
+    @Query(value = VERSION_COLUMNS + "WHERE c.id = :id", nativeQuery = true)
+    ContentVersionView findVersionById(@Param("id") Long id);
+
+    @Query(value = VERSION_COLUMNS + "WHERE c.id = :id AND c.is_public", nativeQuery = true)
+    ContentVersionView findPublicVersionById(@Param("id") Long id);
+
+    // Membership changes go straight to the join table so only the affected rows are written
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO Snippet_Collections (collection_id, snippet_id) " +
+                   "SELECT :collectionId, unnest(CAST(:snippetIds AS bigint[])) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int addSnippets(@Param("collectionId") Long collectionId, @Param("snippetIds") Long[] snippetIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM Snippet_Collections " +
+                   "WHERE collection_id = :collectionId AND snippet_id = ANY(CAST(:snippetIds AS bigint[]))",
+           nativeQuery = true)
+    int removeSnippets(@Param("collectionId") Long collectionId, @Param("snippetIds") Long[] snippetIds);
 }
\ No newline at end of file
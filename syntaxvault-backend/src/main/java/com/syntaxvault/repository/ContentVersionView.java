@@ -0,0 +1,15 @@
+package com.syntaxvault.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Aggregate version of a set of rows: how many there are, the latest
+ * modification time and a checksum over every row's modification time, so an
+ * update that commits with an older timestamp still changes the version.
+ */
+public interface ContentVersionView {
+    Long getCount();
+    LocalDateTime getLastModified();
+    Number getChecksum();
+    Long getTagVersion();
+}
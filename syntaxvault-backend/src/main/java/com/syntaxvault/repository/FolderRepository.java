@@ -2,22 +2,63 @@ package com.syntaxvault.repository;
 
 import com.syntaxvault.model.Folder;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface FolderRepository extends JpaRepository<Folder, Long> {
-    List<Folder> findByUserUsername(String username);
+    @Query("SELECT f FROM Folder f WHERE f.user.id = :userId ORDER BY f.path")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Folder> streamByUserId(@Param("userId") Long userId);
     
-    List<Folder> findByUserUsernameAndParentIsNull(String username);
+    // (id, parentId, name, path) of every folder the user owns, parents before children
+    @Query("SELECT f.id, f.parent.id, f.name, f.path FROM Folder f WHERE f.user.id = :userId ORDER BY f.path")
+    List<Object[]> findTreeRowsByUserId(@Param("userId") Long userId);
+
+    // (folderId, snippetId) for every snippet filed in one of the user's folders
+    @Query("SELECT s.folder.id, s.id FROM Snippet s WHERE s.folder.user.id = :userId")
+    List<Object[]> findSnippetIdsPerFolder(@Param("userId") Long userId);
+
+    // Same rows as findTreeRowsByUserId, limited to one folder and its descendants (prefix index, see V11)
+    @Query("SELECT f.id, f.parent.id, f.name, f.path FROM Folder f WHERE f.user.id = :userId " +
+           "AND (f.id = :folderId OR f.path LIKE :descendantPattern ESCAPE '\\') ORDER BY f.path")
+    List<Object[]> findSubtreeRows(@Param("userId") Long userId,
+                                   @Param("folderId") Long folderId,
+                                   @Param("descendantPattern") String descendantPattern);
+
+    // Same rows as findSnippetIdsPerFolder, limited to one folder and its descendants
+    @Query("SELECT f.id, s.id FROM Snippet s JOIN s.folder f WHERE f.user.id = :userId " +
+           "AND (f.id = :folderId OR f.path LIKE :descendantPattern ESCAPE '\\')")
+    List<Object[]> findSnippetIdsPerFolderInSubtree(@Param("userId") Long userId,
+                                                    @Param("folderId") Long folderId,
+                                                    @Param("descendantPattern") String descendantPattern);
+
+    // (folderId, snippetCount) for every non-empty folder the user owns
+    @Query("SELECT s.folder.id, COUNT(s) FROM Snippet s WHERE s.folder.user.id = :userId GROUP BY s.folder.id")
+    List<Object[]> countSnippetsPerFolder(@Param("userId") Long userId);
     
-    @Query("SELECT f FROM Folder f LEFT JOIN FETCH f.subfolders WHERE f.id = :id")
-    Optional<Folder> findByIdWithSubfolders(@Param("id") Long id);
+    @Query("SELECT f FROM Folder f JOIN FETCH f.user WHERE f.id = :id")
+    Optional<Folder> findByIdWithUser(@Param("id") Long id);
     
     @Query("SELECT f FROM Folder f LEFT JOIN FETCH f.snippets WHERE f.id = :id")
     Optional<Folder> findByIdWithSnippets(@Param("id") Long id);
     
+    // Replaces the old path prefix of every descendant of a moved or renamed folder in one statement
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE Folders SET path = :newPath || substring(path from char_length(:oldPath) + 1) " +
+                   "WHERE user_id = :userId AND path LIKE :descendantPattern ESCAPE '\\'",
+           nativeQuery = true)
+    int rewriteDescendantPaths(@Param("userId") Long userId,
+                               @Param("oldPath") String oldPath,
+                               @Param("descendantPattern") String descendantPattern,
+                               @Param("newPath") String newPath);
+    
     @Query("SELECT CASE WHEN COUNT(f) > 0 THEN true ELSE false END FROM Folder f WHERE f.parent.id = :parentId AND f.name = :name")
     boolean existsByParentIdAndName(@Param("parentId") Long parentId, @Param("name") String name);
     
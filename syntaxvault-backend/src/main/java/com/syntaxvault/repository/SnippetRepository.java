@@ -1,12 +1,20 @@
 package com.syntaxvault.repository;
 
 import com.syntaxvault.model.Snippet;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.repository.query.Param;
 import java.util.Optional;
 import java.util.List;
+import java.util.Collection;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
 
 public interface SnippetRepository extends JpaRepository<Snippet, Long>, JpaSpecificationExecutor<Snippet> {
     
@@ -16,9 +24,19 @@ public interface SnippetRepository extends JpaRepository<Snippet, Long>, JpaSpec
     // Find snippets by language
     List<Snippet> findByLanguage(String language);
 
-    // Find snippets containing a specific keyword in title or content
-    @Query("SELECT s FROM Snippet s WHERE LOWER(s.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR LOWER(s.content) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<Snippet> findByTitleOrContentContaining(@Param("keyword") String keyword);
+    // Full-text match on the GIN-indexed search_vector, best ts_rank first, visibility applied in SQL
+    @Query(value = "SELECT s.id FROM Snippets s, websearch_to_tsquery('english', :query) q " +
+                   "WHERE s.search_vector @@ q AND (s.is_public OR s.user_id = :userId) " +
+                   "AND (CAST(:language AS text) IS NULL OR LOWER(s.language) = LOWER(CAST(:language AS text))) " +
+                   "ORDER BY ts_rank(s.search_vector, q) DESC, s.id DESC",
+           countQuery = "SELECT COUNT(*) FROM Snippets s " +
+                        "WHERE s.search_vector @@ websearch_to_tsquery('english', :query) AND (s.is_public OR s.user_id = :userId) " +
+                        "AND (CAST(:language AS text) IS NULL OR LOWER(s.language) = LOWER(CAST(:language AS text)))",
+           nativeQuery = true)
+    Page<Long> findIdsByFullTextQuery(@Param("query") String query,
+                                      @Param("language") String language,
+                                      @Param("userId") Long userId,
+                                      Pageable pageable);
 
     // Find snippets by tag name
     @Query("SELECT s FROM Snippet s JOIN s.tags t WHERE LOWER(t.name) = LOWER(:tagName)")
@@ -34,7 +52,163 @@ public interface SnippetRepository extends JpaRepository<Snippet, Long>, JpaSpec
     @Query("SELECT DISTINCT s FROM Snippet s LEFT JOIN FETCH s.user LEFT JOIN FETCH s.tags WHERE s.user.id = :userId")
     List<Snippet> findByUserIdWithUserAndTags(@Param("userId") Long userId);
 
-    List<Snippet> findByIsPublicTrue();
+    // Hydrate a known set of snippets, e.g. search index candidates
+    @Query("SELECT DISTINCT s FROM Snippet s LEFT JOIN FETCH s.user LEFT JOIN FETCH s.tags WHERE s.id IN :ids")
+    List<Snippet> findByIdInWithUserAndTags(@Param("ids") Collection<Long> ids);
+
+    // Walk the table in id order, one page at a time, with compressed content in the same query
+    @Query("SELECT s FROM Snippet s LEFT JOIN FETCH s.compressedContent WHERE s.id > :id ORDER BY s.id")
+    List<Snippet> findByIdGreaterThanOrderByIdAsc(@Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT DISTINCT s FROM Snippet s LEFT JOIN FETCH s.user LEFT JOIN FETCH s.tags WHERE s.isPublic = true")
+    List<Snippet> findPublicWithUserAndTags();
+
+    @Query("SELECT DISTINCT s FROM Snippet s LEFT JOIN FETCH s.tags WHERE s.folder.id = :folderId")
+    List<Snippet> findByFolderIdWithTags(@Param("folderId") Long folderId);
+
+    // Forward-only cursor over a user's snippets; rows arrive in fetch-size chunks, ordered by id so tag rows stay grouped
+    @Query("SELECT s FROM Snippet s LEFT JOIN FETCH s.folder LEFT JOIN FETCH s.compressedContent LEFT JOIN FETCH s.tags " +
+           "WHERE s.user.id = :userId ORDER BY s.id")
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Snippet> streamByUserIdWithFolderAndTags(@Param("userId") Long userId);
+
+    // Keyset pages ordered by (lastModifiedDate DESC, id DESC); the *After variants continue from a cursor
+    @Query("SELECT s.id FROM Snippet s WHERE s.user.id = :userId ORDER BY s.lastModifiedDate DESC, s.id DESC")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT s.id FROM Snippet s WHERE s.user.id = :userId " +
+           "AND s.lastModifiedDate <= :date AND (s.lastModifiedDate < :date OR s.id < :id) " +
+           "ORDER BY s.lastModifiedDate DESC, s.id DESC")
+    List<Long> findIdsByUserIdAfter(@Param("userId") Long userId, @Param("date") LocalDateTime date,
+                                    @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT s.id FROM Snippet s WHERE s.isPublic = true ORDER BY s.lastModifiedDate DESC, s.id DESC")
+    List<Long> findPublicIds(Pageable pageable);
+
+    @Query("SELECT s.id FROM Snippet s WHERE s.isPublic = true " +
+           "AND s.lastModifiedDate <= :date AND (s.lastModifiedDate < :date OR s.id < :id) " +
+           "ORDER BY s.lastModifiedDate DESC, s.id DESC")
+    List<Long> findPublicIdsAfter(@Param("date") LocalDateTime date, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT s.id FROM Snippet s WHERE s.folder.id = :folderId ORDER BY s.lastModifiedDate DESC, s.id DESC")
+    List<Long> findIdsByFolderId(@Param("folderId") Long folderId, Pageable pageable);
+
+    @Query("SELECT s.id FROM Snippet s WHERE s.folder.id = :folderId " +
+           "AND s.lastModifiedDate <= :date AND (s.lastModifiedDate < :date OR s.id < :id) " +
+           "ORDER BY s.lastModifiedDate DESC, s.id DESC")
+    List<Long> findIdsByFolderIdAfter(@Param("folderId") Long folderId, @Param("date") LocalDateTime date,
+                                      @Param("id") Long id, Pageable pageable);
+
+    // Keyset pages over every snippet in a folder's subtree. The subtree's folder ids are resolved
+    // first through the path prefix index on Folders; then each folder reads at most :limit rows
+    // through its own keyset index range and only those are merged, so a page costs about one flat
+    // folder page per folder rather than a sort of the whole subtree. With a language the range
+    // comes from idx_snippets_folder_language_modified; tags (any of) are optional.
+    String SUBTREE_PAGE =
+        "SELECT x.id FROM (SELECT f.id FROM Folders f WHERE f.user_id = :userId " +
+        "AND (f.id = :folderId OR f.path LIKE :descendantPattern ESCAPE '\\')) f CROSS JOIN LATERAL (" +
+        "SELECT s.id, s.last_modified_date FROM Snippets s WHERE s.folder_id = f.id ";
+    String SUBTREE_LANGUAGE = "AND lower(s.language) = lower(CAST(:language AS text)) ";
+    String SUBTREE_AFTER = "AND s.last_modified_date <= :date AND (s.last_modified_date < :date OR s.id < :id) ";
+    String SUBTREE_TAGS_AND_ORDER =
+        "AND (CAST(:tags AS text[]) IS NULL OR EXISTS (SELECT 1 FROM Snippet_Tags st JOIN Tags t ON t.id = st.tag_id " +
+        "WHERE st.snippet_id = s.id AND t.name = ANY(CAST(:tags AS text[])))) " +
+        "ORDER BY s.last_modified_date DESC, s.id DESC LIMIT :limit) x " +
+        "ORDER BY x.last_modified_date DESC, x.id DESC LIMIT :limit";
+
+    @Query(value = SUBTREE_PAGE + SUBTREE_TAGS_AND_ORDER, nativeQuery = true)
+    List<Long> findIdsInFolderSubtree(@Param("userId") Long userId,
+                                      @Param("folderId") Long folderId,
+                                      @Param("descendantPattern") String descendantPattern,
+                                      @Param("tags") String[] tags,
+                                      @Param("limit") int limit);
+
+    @Query(value = SUBTREE_PAGE + SUBTREE_AFTER + SUBTREE_TAGS_AND_ORDER, nativeQuery = true)
+    List<Long> findIdsInFolderSubtreeAfter(@Param("userId") Long userId,
+                                           @Param("folderId") Long folderId,
+                                           @Param("descendantPattern") String descendantPattern,
+                                           @Param("tags") String[] tags,
+                                           @Param("date") LocalDateTime date,
+                                           @Param("id") Long id,
+                                           @Param("limit") int limit);
+
+    @Query(value = SUBTREE_PAGE + SUBTREE_LANGUAGE + SUBTREE_TAGS_AND_ORDER, nativeQuery = true)
+    List<Long> findIdsInFolderSubtreeByLanguage(@Param("userId") Long userId,
+                                                @Param("folderId") Long folderId,
+                                                @Param("descendantPattern") String descendantPattern,
+                                                @Param("language") String language,
+                                                @Param("tags") String[] tags,
+                                                @Param("limit") int limit);
+
+    @Query(value = SUBTREE_PAGE + SUBTREE_LANGUAGE + SUBTREE_AFTER + SUBTREE_TAGS_AND_ORDER, nativeQuery = true)
+    List<Long> findIdsInFolderSubtreeByLanguageAfter(@Param("userId") Long userId,
+                                                     @Param("folderId") Long folderId,
+                                                     @Param("descendantPattern") String descendantPattern,
+                                                     @Param("language") String language,
+                                                     @Param("tags") String[] tags,
+                                                     @Param("date") LocalDateTime date,
+                                                     @Param("id") Long id,
+                                                     @Param("limit") int limit);
+
+    // Summary pages: the page of snippets is picked first through the keyset index, then only
+    // those rows get their owner and an array_agg of tag names. content is never read.
+    String SUMMARY_COLUMNS =
+        "SELECT p.id AS \"id\", p.title AS \"title\", p.language AS \"language\", u.username AS \"username\", " +
+        "p.is_public AS \"isPublic\", p.creation_date AS \"creationDate\", p.last_modified_date AS \"lastModifiedDate\", " +
+        "COALESCE(tg.names, '{}') AS \"tags\" FROM (";
+    String SUMMARY_JOINS =
+        ") p JOIN Users u ON u.id = p.user_id " +
+        "LEFT JOIN LATERAL (SELECT array_agg(t.name ORDER BY t.name) AS names FROM Snippet_Tags st " +
+        "JOIN Tags t ON t.id = st.tag_id WHERE st.snippet_id = p.id) tg ON true " +
+        "ORDER BY p.last_modified_date DESC, p.id DESC";
+    String SUMMARY_ROWS =
+        "SELECT s.id, s.title, s.language, s.user_id, s.is_public, s.creation_date, s.last_modified_date " +
+        "FROM Snippets s WHERE ";
+    String SUMMARY_AFTER = "AND s.last_modified_date <= :date AND (s.last_modified_date < :date OR s.id < :id) ";
+    String SUMMARY_ORDER = "ORDER BY s.last_modified_date DESC, s.id DESC LIMIT :limit";
+
+    @Query(value = SUMMARY_COLUMNS + SUMMARY_ROWS + "s.user_id = :userId " + SUMMARY_ORDER + SUMMARY_JOINS,
+           nativeQuery = true)
+    List<SnippetSummaryView> findSummariesByUserId(@Param("userId") Long userId, @Param("limit") int limit);
+
+    @Query(value = SUMMARY_COLUMNS + SUMMARY_ROWS + "s.user_id = :userId " + SUMMARY_AFTER + SUMMARY_ORDER + SUMMARY_JOINS,
+           nativeQuery = true)
+    List<SnippetSummaryView> findSummariesByUserIdAfter(@Param("userId") Long userId, @Param("date") LocalDateTime date,
+                                                        @Param("id") Long id, @Param("limit") int limit);
+
+    @Query(value = SUMMARY_COLUMNS + SUMMARY_ROWS + "s.is_public " + SUMMARY_ORDER + SUMMARY_JOINS,
+           nativeQuery = true)
+    List<SnippetSummaryView> findPublicSummaries(@Param("limit") int limit);
+
+    @Query(value = SUMMARY_COLUMNS + SUMMARY_ROWS + "s.is_public " + SUMMARY_AFTER + SUMMARY_ORDER + SUMMARY_JOINS,
+           nativeQuery = true)
+    List<SnippetSummaryView> findPublicSummariesAfter(@Param("date") LocalDateTime date, @Param("id") Long id,
+                                                      @Param("limit") int limit);
+
+    // Versions for conditional GETs; index-only scans of the keyset indexes, no rows are loaded
+    String VERSION_COLUMNS =
+        "SELECT count(*) AS \"count\", max(s.last_modified_date) AS \"lastModified\", " +
+        "sum(CAST(extract(epoch FROM s.last_modified_date) * 1000000 AS bigint)) AS \"checksum\", " +
+        "(SELECT v.version FROM Content_Versions v WHERE v.name = 'tags') AS \"tagVersion\" FROM Snippets s ";
+
+    @Query(value = VERSION_COLUMNS + "WHERE s.user_id = :userId", nativeQuery = true)
+    ContentVersionView findVersionByUserId(@Param("userId") Long userId);
+
+    @Query(value = VERSION_COLUMNS + "WHERE s.is_public", nativeQuery = true)
+    ContentVersionView findPublicVersion();
+
+    @Query(value = VERSION_COLUMNS + "WHERE s.id = :id", nativeQuery = true)
+    ContentVersionView findVersionById(@Param("id") Long id);
+
+    @Query(value = VERSION_COLUMNS + "WHERE s.id = :id AND s.is_public", nativeQuery = true)
+    ContentVersionView findPublicVersionById(@Param("id") Long id);
+
+    // (id, ownerId, isPublic) of the given snippets, for validating references without loading them
+    @Query("SELECT s.id, s.user.id, s.isPublic FROM Snippet s WHERE s.id IN :ids")
+    List<Object[]> findAccessInfoByIdIn(@Param("ids") Collection<Long> ids);
 
     Optional<Snippet> findByIdAndIsPublicTrue(Long id);
 }
@@ -0,0 +1,17 @@
+package com.syntaxvault.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Column subset of a snippet for list views; never includes content.
+ */
+public interface SnippetSummaryView {
+    Long getId();
+    String getTitle();
+    String getLanguage();
+    String getUsername();
+    Boolean getIsPublic();
+    LocalDateTime getCreationDate();
+    LocalDateTime getLastModifiedDate();
+    String[] getTags();
+}
@@ -1,11 +1,15 @@
 package com.syntaxvault.repository;
 
 import com.syntaxvault.model.Tag;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.Optional;
 import java.util.List;
+import java.util.Collection;
 
 public interface TagRepository extends JpaRepository<Tag, Long> {
     Optional<Tag> findByName(String name);
+    List<Tag> findByNameIn(Collection<String> names);
     List<Tag> findByNameContainingIgnoreCase(String query);
+    List<Tag> findByNameStartingWithIgnoreCaseOrderByNameAsc(String prefix, Pageable pageable);
 }
\ No newline at end of file
@@ -3,13 +3,8 @@ package com.syntaxvault.repository;
 import com.syntaxvault.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import java.util.Optional;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
-    
-    @Query("SELECT u FROM User u LEFT JOIN FETCH u.snippets WHERE u.id = :id")
-    Optional<User> findByIdWithSnippets(@Param("id") Long id);
 }
\ No newline at end of file
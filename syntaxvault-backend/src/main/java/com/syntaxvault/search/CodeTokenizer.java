@@ -0,0 +1,286 @@
+package com.syntaxvault.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Breaks source code into identifier-level search terms.
+ *
+ * Every identifier is split at camelCase and snake_case boundaries, and is
+ * indexed both as its lowercased parts and as the parts joined together, so
+ * parseJson, parse_json, ParseJSON and parse-json all share the term
+ * "parsejson" while "json" still finds each of them. Runs of operator
+ * characters such as "=>", "::" or "->" are kept as terms of their own; single
+ * symbols and one-letter parts are too common to be worth indexing. Words that
+ * are keywords of the snippet's language are skipped.
+ */
+public final class CodeTokenizer {
+
+    public static final String IDENTIFIER_QUERY_PREFIX = "ident:";
+
+    private static final String OPERATOR_CHARS = "+-*/%=<>!&|^~?:.@#";
+
+    private static final Map<String, String> LANGUAGE_ALIASES = Map.of(
+        "js", "javascript",
+        "ts", "typescript",
+        "py", "python",
+        "sh", "bash",
+        "shell", "bash",
+        "golang", "go",
+        "c++", "cpp",
+        "kt", "kotlin"
+    );
+
+    private static final Set<String> C_FAMILY = Set.of(
+        "if", "else", "for", "while", "do", "switch", "case", "default", "break", "continue", "return",
+        "goto", "sizeof", "typedef", "struct", "union", "enum", "const", "static", "extern", "void",
+        "int", "char", "long", "short", "float", "double", "unsigned", "signed", "volatile", "auto", "register"
+    );
+
+    private static final Map<String, Set<String>> KEYWORDS = Map.ofEntries(
+        Map.entry("java", Set.of(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+            "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+            "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+            "new", "package", "private", "protected", "public", "return", "short", "static", "super",
+            "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void", "volatile",
+            "while", "var", "record", "yield", "true", "false", "null")),
+        Map.entry("kotlin", Set.of(
+            "as", "break", "class", "continue", "do", "else", "false", "for", "fun", "if", "in",
+            "interface", "is", "null", "object", "package", "return", "super", "this", "throw", "true",
+            "try", "typealias", "val", "var", "when", "while", "import", "override", "private", "public")),
+        Map.entry("python", Set.of(
+            "and", "as", "assert", "async", "await", "break", "class", "continue", "def", "del", "elif",
+            "else", "except", "false", "finally", "for", "from", "global", "if", "import", "in", "is",
+            "lambda", "none", "nonlocal", "not", "or", "pass", "raise", "return", "true", "try", "while",
+            "with", "yield", "self")),
+        Map.entry("javascript", Set.of(
+            "async", "await", "break", "case", "catch", "class", "const", "continue", "debugger", "default",
+            "delete", "do", "else", "export", "extends", "false", "finally", "for", "function", "if",
+            "import", "in", "instanceof", "let", "new", "null", "return", "super", "switch", "this",
+            "throw", "true", "try", "typeof", "undefined", "var", "void", "while", "with", "yield", "of")),
+        Map.entry("typescript", Set.of(
+            "async", "await", "break", "case", "catch", "class", "const", "continue", "debugger", "default",
+            "delete", "do", "else", "export", "extends", "false", "finally", "for", "function", "if",
+            "import", "in", "instanceof", "let", "new", "null", "return", "super", "switch", "this",
+            "throw", "true", "try", "typeof", "undefined", "var", "void", "while", "with", "yield", "of",
+            "interface", "type", "implements", "private", "public", "protected", "readonly", "enum",
+            "declare", "namespace", "abstract", "as", "any", "number", "string", "boolean")),
+        Map.entry("go", Set.of(
+            "break", "case", "chan", "const", "continue", "default", "defer", "else", "fallthrough", "for",
+            "func", "go", "goto", "if", "import", "interface", "map", "package", "range", "return",
+            "select", "struct", "switch", "type", "var", "nil", "true", "false")),
+        Map.entry("rust", Set.of(
+            "as", "async", "await", "break", "const", "continue", "crate", "dyn", "else", "enum", "extern",
+            "false", "fn", "for", "if", "impl", "in", "let", "loop", "match", "mod", "move", "mut", "pub",
+            "ref", "return", "self", "static", "struct", "super", "trait", "true", "type", "unsafe", "use",
+            "where", "while")),
+        Map.entry("sql", Set.of(
+            "select", "from", "where", "and", "or", "not", "insert", "into", "values", "update", "set",
+            "delete", "create", "table", "drop", "alter", "add", "join", "inner", "left", "right", "outer",
+            "full", "on", "as", "group", "by", "order", "having", "limit", "offset", "union", "all",
+            "distinct", "null", "is", "in", "like", "between", "case", "when", "then", "else", "end",
+            "exists", "primary", "key", "foreign", "references", "index", "asc", "desc", "with")),
+        Map.entry("bash", Set.of(
+            "if", "then", "else", "elif", "fi", "case", "esac", "for", "while", "until", "do", "done",
+            "in", "function", "select", "time", "return", "local", "export", "echo")),
+        Map.entry("c", C_FAMILY),
+        Map.entry("cpp", union(C_FAMILY, Set.of(
+            "class", "namespace", "template", "typename", "public", "private", "protected", "virtual",
+            "new", "delete", "this", "true", "false", "nullptr", "using", "try", "catch", "throw",
+            "bool", "operator", "friend", "inline", "constexpr", "noexcept")))
+    );
+
+    private CodeTokenizer() {
+    }
+
+    /**
+     * Returns the raw tokens of the text in order: identifiers with their
+     * original spelling and runs of operator characters.
+     */
+    public static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int start = i;
+            if (isIdentifierChar(c)) {
+                while (i < text.length() && isIdentifierChar(text.charAt(i))) {
+                    i++;
+                }
+                tokens.add(text.substring(start, i));
+            } else if (OPERATOR_CHARS.indexOf(c) >= 0) {
+                while (i < text.length() && OPERATOR_CHARS.indexOf(text.charAt(i)) >= 0) {
+                    i++;
+                }
+                tokens.add(text.substring(start, i));
+            } else {
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the distinct search terms of a snippet written in the given
+     * language, which may be null or unknown.
+     */
+    public static Set<String> terms(String text, String language) {
+        Set<String> keywords = keywordsFor(language);
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+
+        // A kebab-case chain is words joined by single dashes with nothing in between
+        StringBuilder chain = new StringBuilder();
+        int chainWords = 0;
+        int previousEnd = -1;
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            int start = i;
+            if (isIdentifierChar(c)) {
+                while (i < text.length() && isIdentifierChar(text.charAt(i))) {
+                    i++;
+                }
+                String word = text.substring(start, i);
+                boolean continuesChain = chainWords > 0 && start == previousEnd + 1 && text.charAt(previousEnd) == '-';
+                if (!continuesChain) {
+                    addChain(terms, chain, chainWords);
+                    chain.setLength(0);
+                    chainWords = 0;
+                }
+                List<String> parts = splitIdentifier(word);
+                chain.append(String.join("", parts));
+                chainWords++;
+                previousEnd = i;
+
+                if (keywords.contains(word.toLowerCase(Locale.ROOT))) {
+                    continue;
+                }
+                for (String part : parts) {
+                    addTerm(terms, part);
+                }
+                addTerm(terms, String.join("", parts));
+            } else if (OPERATOR_CHARS.indexOf(c) >= 0) {
+                while (i < text.length() && OPERATOR_CHARS.indexOf(text.charAt(i)) >= 0) {
+                    i++;
+                }
+                if (i - start > 1) {
+                    terms.add(text.substring(start, i));
+                }
+                if (!(i - start == 1 && c == '-' && start == previousEnd)) {
+                    addChain(terms, chain, chainWords);
+                    chain.setLength(0);
+                    chainWords = 0;
+                }
+            } else {
+                addChain(terms, chain, chainWords);
+                chain.setLength(0);
+                chainWords = 0;
+                i++;
+            }
+        }
+        addChain(terms, chain, chainWords);
+        return terms;
+    }
+
+    /**
+     * Splits an identifier into lowercased parts at underscores, dashes, an
+     * upper case letter following a lower case letter or digit, and the end of
+     * an acronym (JSONParser).
+     */
+    public static List<String> splitIdentifier(String identifier) {
+        List<String> parts = new ArrayList<>();
+        StringBuilder part = new StringBuilder();
+        for (int i = 0; i < identifier.length(); i++) {
+            char c = identifier.charAt(i);
+            if (c == '_' || c == '-' || c == '$') {
+                flush(parts, part);
+                continue;
+            }
+            if (part.length() > 0) {
+                char previous = identifier.charAt(i - 1);
+                boolean lowerToUpper = Character.isUpperCase(c) && (Character.isLowerCase(previous) || Character.isDigit(previous));
+                boolean acronymEnd = Character.isUpperCase(c) && Character.isUpperCase(previous)
+                    && i + 1 < identifier.length() && Character.isLowerCase(identifier.charAt(i + 1));
+                if (lowerToUpper || acronymEnd) {
+                    flush(parts, part);
+                }
+            }
+            part.append(Character.toLowerCase(c));
+        }
+        flush(parts, part);
+        return parts;
+    }
+
+    /**
+     * Returns the terms of an {@code ident:} query, one per whitespace separated
+     * identifier or operator, or null when the keyword is not such a query.
+     */
+    public static List<String> parseIdentifierQuery(String keyword) {
+        if (keyword == null || !keyword.startsWith(IDENTIFIER_QUERY_PREFIX)) {
+            return null;
+        }
+        List<String> terms = new ArrayList<>();
+        for (String word : keyword.substring(IDENTIFIER_QUERY_PREFIX.length()).trim().split("\\s+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (OPERATOR_CHARS.indexOf(word.charAt(0)) >= 0 && word.chars().allMatch(ch -> OPERATOR_CHARS.indexOf(ch) >= 0)) {
+                terms.add(word);
+            } else {
+                String joined = String.join("", splitIdentifier(word));
+                if (!joined.isEmpty()) {
+                    terms.add(joined);
+                }
+            }
+        }
+        return terms;
+    }
+
+    private static Set<String> keywordsFor(String language) {
+        if (language == null) {
+            return Set.of();
+        }
+        String key = language.trim().toLowerCase(Locale.ROOT);
+        return KEYWORDS.getOrDefault(LANGUAGE_ALIASES.getOrDefault(key, key), Set.of());
+    }
+
+    private static void addChain(Set<String> terms, StringBuilder chain, int words) {
+        if (words > 1) {
+            addTerm(terms, chain.toString());
+        }
+    }
+
+    private static void addTerm(Set<String> terms, String term) {
+        if (term.length() > 1 && !term.chars().allMatch(Character::isDigit)) {
+            terms.add(term);
+        }
+    }
+
+    private static void flush(List<String> parts, StringBuilder part) {
+        if (part.length() > 0) {
+            parts.add(part.toString());
+            part.setLength(0);
+        }
+    }
+
+    private static boolean isIdentifierChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    private static Set<String> union(Set<String> first, Set<String> second) {
+        Set<String> all = new LinkedHashSet<>(first);
+        all.addAll(second);
+        return Set.copyOf(all);
+    }
+}
@@ -0,0 +1,149 @@
+package com.syntaxvault.search;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * MinHash signatures of snippet content, for near-duplicate detection.
+ *
+ * Content is normalized to its lowercased tokens (see CodeTokenizer.tokens),
+ * so whitespace, indentation, brackets and separators make no difference, and
+ * cut into shingles of three consecutive tokens. Each of the NUM_HASHES slots
+ * of a signature keeps the minimum of one hash function over all shingles; the
+ * share of slots two signatures agree on estimates the Jaccard similarity of
+ * their shingle sets.
+ *
+ * For locality-sensitive hashing the signature is split into BANDS bands of
+ * ROWS slots. Two snippets share a band key with probability about
+ * 1 - (1 - J^ROWS)^BANDS: over 99.9% at a similarity of 0.7, 98.8% at
+ * MIN_THRESHOLD (0.6), 87% at 0.5 and 56% at 0.4. Lookups below MIN_THRESHOLD
+ * would miss a growing share of their matches, so they are not offered.
+ * Band keys are derived from the stored signatures when the index is loaded,
+ * so BANDS can change without touching stored data.
+ *
+ * Signatures are stored per snippet, so the hash functions must never change
+ * without recomputing every stored signature.
+ */
+public final class MinHash {
+
+    public static final int NUM_HASHES = 128;
+
+    public static final int BANDS = 32;
+
+    public static final int ROWS = NUM_HASHES / BANDS;
+
+    // The lowest similarity a lookup may ask for; pairs there share a band 98.8% of the time
+    public static final double MIN_THRESHOLD = 0.6;
+
+    static final int SHINGLE_SIZE = 3;
+
+    private static final long SEED = 0x5EEDC0DE5EEDC0DEL;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    // Hash i of a shingle hash h is the high half of MULTIPLIERS[i] * h + OFFSETS[i]
+    private static final long[] MULTIPLIERS = new long[NUM_HASHES];
+
+    private static final long[] OFFSETS = new long[NUM_HASHES];
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < NUM_HASHES; i++) {
+            MULTIPLIERS[i] = random.nextLong() | 1L;
+            OFFSETS[i] = random.nextLong();
+        }
+    }
+
+    private MinHash() {
+    }
+
+    /**
+     * Returns the signature of the content, or null when it has no tokens.
+     * Content shorter than one shingle becomes a single shingle.
+     */
+    public static int[] signature(String content) {
+        List<String> tokens = CodeTokenizer.tokens(content);
+        if (tokens.isEmpty()) {
+            return null;
+        }
+        long[] tokenHashes = new long[tokens.size()];
+        for (int i = 0; i < tokenHashes.length; i++) {
+            tokenHashes[i] = mix(tokens.get(i).toLowerCase(Locale.ROOT).hashCode());
+        }
+
+        // Slots hold unsigned minimums, so they start at the largest unsigned int
+        int[] signature = new int[NUM_HASHES];
+        Arrays.fill(signature, -1);
+        int shingles = Math.max(1, tokenHashes.length - SHINGLE_SIZE + 1);
+        for (int start = 0; start < shingles; start++) {
+            long h = tokenHashes[start];
+            for (int k = 1; k < SHINGLE_SIZE && start + k < tokenHashes.length; k++) {
+                h = mix(h * GOLDEN_GAMMA + tokenHashes[start + k]);
+            }
+            for (int i = 0; i < NUM_HASHES; i++) {
+                int value = (int) ((MULTIPLIERS[i] * h + OFFSETS[i]) >>> 32);
+                if (Integer.compareUnsigned(value, signature[i]) < 0) {
+                    signature[i] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Estimated Jaccard similarity of the shingle sets behind two signatures.
+     */
+    public static double similarity(int[] a, int[] b) {
+        int equal = 0;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            if (a[i] == b[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / NUM_HASHES;
+    }
+
+    /**
+     * Returns one bucket key per band. Keys include the band number, so
+     * signatures only collide when they agree on every slot of the same band.
+     */
+    public static long[] bandKeys(int[] signature) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long h = band;
+            for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+                h = h * GOLDEN_GAMMA + signature[row];
+            }
+            keys[band] = mix(h);
+        }
+        return keys;
+    }
+
+    public static byte[] toBytes(int[] signature) {
+        if (signature == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(NUM_HASHES * Integer.BYTES);
+        buffer.asIntBuffer().put(signature);
+        return buffer.array();
+    }
+
+    public static int[] fromBytes(byte[] bytes) {
+        if (bytes == null || bytes.length != NUM_HASHES * Integer.BYTES) {
+            return null;
+        }
+        int[] signature = new int[NUM_HASHES];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(signature);
+        return signature;
+    }
+
+    // The SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
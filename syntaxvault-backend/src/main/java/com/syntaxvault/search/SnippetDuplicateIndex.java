@@ -0,0 +1,248 @@
+package com.syntaxvault.search;
+
+import com.syntaxvault.events.ChangeEvent;
+import com.syntaxvault.events.ChangeEventSubscriber;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Locality-sensitive hashing index over the stored MinHash signatures of
+ * snippet content, for finding near-duplicates.
+ *
+ * Every snippet is filed under one bucket key per signature band (see
+ * MinHash.bandKeys). A lookup only reads the buckets of the probe's own
+ * bands and compares the signatures of what it finds there, so its cost
+ * follows the number of similar snippets rather than the size of the vault.
+ *
+ * Like SnippetSearchIndex it packs owner id and public flag per snippet to
+ * filter visibility, and is kept current from the change outbox.
+ */
+@Component
+public class SnippetDuplicateIndex implements ChangeEventSubscriber {
+
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    // Most signatures one lookup reads from the database before the buckets are loaded
+    private static final int SCAN_MAX_ROWS = 20_000;
+
+    private static final String PAGE_SQL =
+        "SELECT id, user_id, is_public, content_minhash FROM Snippets " +
+        "WHERE id > ? AND content_minhash IS NOT NULL ORDER BY id LIMIT ?";
+
+    private static final String BY_ID_SQL =
+        "SELECT id, user_id, is_public, content_minhash FROM Snippets WHERE id = ANY(?)";
+
+    private static final String VISIBLE_PAGE_SQL =
+        "SELECT id, content_minhash FROM Snippets " +
+        "WHERE id > ? AND content_minhash IS NOT NULL AND (is_public OR user_id = ?) ORDER BY id LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // band key -> ids of snippets whose signature has that band
+    private final Map<Long, Set<Long>> buckets = new ConcurrentHashMap<>();
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    /**
+     * A snippet whose content is likely a near-duplicate of the probe.
+     *
+     * @param similarity estimated Jaccard similarity of the two contents
+     */
+    public record Match(long id, double similarity) {
+    }
+
+    /**
+     * @param bits owner id shifted left by one, with the public flag in the lowest bit
+     */
+    private record Entry(long bits, int[] signature) {
+        long ownerId() {
+            return bits >>> 1;
+        }
+
+        boolean isPublic() {
+            return (bits & 1L) != 0;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long[] lastId = {0};
+        int[] rows = new int[1];
+        do {
+            rows[0] = 0;
+            jdbcTemplate.query(PAGE_SQL, rs -> {
+                // Writes that committed while we were scanning are newer than this page
+                index(rs.getLong("id"), rs.getLong("user_id"), rs.getBoolean("is_public"),
+                      MinHash.fromBytes(rs.getBytes("content_minhash")), false);
+                lastId[0] = rs.getLong("id");
+                rows[0]++;
+            }, lastId[0], REBUILD_PAGE_SIZE);
+        } while (rows[0] == REBUILD_PAGE_SIZE);
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Re-reads the signature of every snippet the events mention, or drops the
+     * snippet when the row is gone or has no signature.
+     */
+    @Override
+    public void onChanges(List<ChangeEvent> events) {
+        Set<Long> ids = new HashSet<>();
+        for (ChangeEvent event : events) {
+            if (event.aggregate() == ChangeEvent.Aggregate.SNIPPET) {
+                ids.add(event.aggregateId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query(BY_ID_SQL, ps -> ps.setArray(1, toArray(ps.getConnection(), ids)), rs -> {
+            long id = rs.getLong("id");
+            int[] signature = MinHash.fromBytes(rs.getBytes("content_minhash"));
+            if (signature != null) {
+                index(id, rs.getLong("user_id"), rs.getBoolean("is_public"), signature, true);
+                ids.remove(id);
+            }
+        });
+        ids.forEach(this::remove);
+    }
+
+    public void index(long id, long ownerId, boolean isPublic, int[] signature) {
+        index(id, ownerId, isPublic, signature, true);
+    }
+
+    public synchronized void remove(long id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            unlink(id, previous.signature());
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} snippets visible to the user, other than
+     * {@code excludeId}, whose estimated similarity to the signature is at
+     * least the threshold, most similar first.
+     */
+    public List<Match> findSimilar(int[] signature, long excludeId, double threshold, long userId, int limit) {
+        Set<Long> seen = new HashSet<>();
+        List<Match> matches = new ArrayList<>();
+        for (long key : MinHash.bandKeys(signature)) {
+            Set<Long> ids = buckets.get(key);
+            if (ids == null) {
+                continue;
+            }
+            for (Long id : ids) {
+                if (id == excludeId || !seen.add(id)) {
+                    continue;
+                }
+                Entry entry = entries.get(id);
+                if (entry == null || !isVisible(entry, userId)) {
+                    continue;
+                }
+                double similarity = MinHash.similarity(signature, entry.signature());
+                if (similarity >= threshold) {
+                    matches.add(new Match(id, similarity));
+                }
+            }
+        }
+        return top(matches, limit);
+    }
+
+    /**
+     * Same as findSimilar, but compares the signature with the visible
+     * snippets in the database, a page at a time. Used until the buckets are
+     * loaded, and refuses rather than reading more than SCAN_MAX_ROWS rows.
+     */
+    public List<Match> scanSimilar(int[] signature, long excludeId, double threshold, long userId, int limit) {
+        List<Match> matches = new ArrayList<>();
+        long[] lastId = {0};
+        int[] rows = new int[1];
+        int scanned = 0;
+        do {
+            if (scanned >= SCAN_MAX_ROWS) {
+                throw new RuntimeException("Duplicate detection is still starting up, please try again shortly");
+            }
+            rows[0] = 0;
+            jdbcTemplate.query(VISIBLE_PAGE_SQL, rs -> {
+                long id = rs.getLong("id");
+                int[] other = MinHash.fromBytes(rs.getBytes("content_minhash"));
+                if (id != excludeId && other != null) {
+                    double similarity = MinHash.similarity(signature, other);
+                    if (similarity >= threshold) {
+                        matches.add(new Match(id, similarity));
+                    }
+                }
+                lastId[0] = id;
+                rows[0]++;
+            }, lastId[0], userId, REBUILD_PAGE_SIZE);
+            scanned += rows[0];
+        } while (rows[0] == REBUILD_PAGE_SIZE);
+        return top(matches, limit);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private synchronized void index(long id, long ownerId, boolean isPublic, int[] signature, boolean replace) {
+        if (signature == null) {
+            return;
+        }
+        Entry previous = entries.get(id);
+        if (previous != null) {
+            if (!replace) {
+                return;
+            }
+            unlink(id, previous.signature());
+        }
+        for (long key : MinHash.bandKeys(signature)) {
+            buckets.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        entries.put(id, new Entry((ownerId << 1) | (isPublic ? 1L : 0L), signature));
+    }
+
+    private void unlink(long id, int[] signature) {
+        for (long key : MinHash.bandKeys(signature)) {
+            Set<Long> ids = buckets.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    buckets.remove(key, ids);
+                }
+            }
+        }
+    }
+
+    private static boolean isVisible(Entry entry, long userId) {
+        return entry.isPublic() || entry.ownerId() == userId;
+    }
+
+    private static List<Match> top(List<Match> matches, int limit) {
+        matches.sort(Comparator.comparingDouble(Match::similarity).reversed().thenComparingLong(Match::id));
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    private static Array toArray(Connection connection, Set<Long> ids) throws SQLException {
+        return connection.createArrayOf("bigint", ids.toArray());
+    }
+}
@@ -0,0 +1,374 @@
+package com.syntaxvault.search;
+
+import com.syntaxvault.events.ChangeEvent;
+import com.syntaxvault.events.ChangeEventSubscriber;
+import com.syntaxvault.model.Snippet;
+import com.syntaxvault.model.Tag;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitmaps of snippet ids per language and per tag, used to count
+ * search facets.
+ *
+ * Callers pass the ids of every match as a bitmap. Large match sets cost one
+ * intersection cardinality per facet value, which never materializes the
+ * intersection. Smaller ones are cheaper to walk once, looking up the
+ * language and tags of each match; the cheaper path is picked per call.
+ *
+ * Bitmaps hold 32-bit ids, so snippets whose id does not fit (see fits) are
+ * left out; searches that match one count their facets with count instead.
+ *
+ * Visibility is not tracked here: the match set is already restricted to what
+ * the caller may see. Kept current from the change outbox; tag renames and
+ * deletes are applied directly by the tag endpoints.
+ */
+@Component
+public class SnippetFacetIndex implements ChangeEventSubscriber {
+
+    private static final String LANGUAGES_SQL = "SELECT id, language FROM Snippets ORDER BY id";
+
+    private static final String TAGS_SQL =
+        "SELECT st.snippet_id, st.tag_id, t.name FROM Snippet_Tags st JOIN Tags t ON t.id = st.tag_id";
+
+    private static final String LANGUAGES_BY_ID_SQL = "SELECT id, language FROM Snippets WHERE id = ANY(?)";
+
+    private static final String TAGS_BY_ID_SQL = TAGS_SQL + " WHERE st.snippet_id = ANY(?)";
+
+    private static final long SCAN_COST_RATIO = 32;
+
+    private static final Comparator<Bucket> BUCKET_ORDER =
+        Comparator.comparingInt(Bucket::count).reversed().thenComparing(Bucket::value);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Readers share the bitmaps; the dispatcher thread is the only regular writer
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Languages and tags are numbered by first appearance; the lists are indexed by that ordinal
+    private final Map<String, Integer> languageOrdinals = new HashMap<>();
+
+    private final List<String> languageNames = new ArrayList<>();
+
+    private final List<RoaringBitmap> languageIds = new ArrayList<>();
+
+    private final Map<Long, Integer> tagOrdinals = new HashMap<>();
+
+    private final List<String> tagNames = new ArrayList<>(); // null once the tag is deleted
+
+    private final List<RoaringBitmap> tagIds = new ArrayList<>();
+
+    // Per snippet id, so updates can unlink it and sparse matches can be counted
+    // without touching the bitmaps: language ordinal + 1 (0 when not indexed), tag ordinals
+    private int[] languageOf = new int[0];
+
+    private int[][] tagsOf = new int[0][];
+
+    private volatile boolean ready = false;
+
+    public record Bucket(String value, int count) {
+    }
+
+    public record Facets(List<Bucket> languages, List<Bucket> tags) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        Map<Integer, String> languages = new LinkedHashMap<>();
+        Map<Integer, Map<Long, String>> tags = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            // Changes delivered while we load wait for the lock and are applied on top
+            jdbcTemplate.query(LANGUAGES_SQL, rs -> {
+                if (fits(rs.getLong("id"))) {
+                    languages.put((int) rs.getLong("id"), rs.getString("language"));
+                }
+            });
+            jdbcTemplate.query(TAGS_SQL, rs -> {
+                if (fits(rs.getLong("snippet_id"))) {
+                    tags.computeIfAbsent((int) rs.getLong("snippet_id"), id -> new HashMap<>())
+                        .put(rs.getLong("tag_id"), rs.getString("name"));
+                }
+            });
+
+            languageOrdinals.clear();
+            languageNames.clear();
+            languageIds.clear();
+            tagOrdinals.clear();
+            tagNames.clear();
+            tagIds.clear();
+            languageOf = new int[0];
+            tagsOf = new int[0][];
+            languages.forEach((id, language) -> link(id, language, tags.getOrDefault(id, Map.of())));
+            languageIds.forEach(RoaringBitmap::runOptimize);
+            tagIds.forEach(RoaringBitmap::runOptimize);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Re-reads the language and tags of every snippet the events mention, or
+     * drops it when the row is gone.
+     */
+    @Override
+    public void onChanges(List<ChangeEvent> events) {
+        Set<Long> ids = new TreeSet<>();
+        for (ChangeEvent event : events) {
+            if (event.aggregate() == ChangeEvent.Aggregate.SNIPPET && fits(event.aggregateId())) {
+                ids.add(event.aggregateId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        Map<Long, String> languages = new HashMap<>();
+        Map<Long, Map<Long, String>> tags = new HashMap<>();
+        jdbcTemplate.query(LANGUAGES_BY_ID_SQL, ps -> ps.setArray(1, toArray(ps.getConnection(), ids)), rs -> {
+            languages.put(rs.getLong("id"), rs.getString("language"));
+        });
+        jdbcTemplate.query(TAGS_BY_ID_SQL, ps -> ps.setArray(1, toArray(ps.getConnection(), ids)), rs -> {
+            tags.computeIfAbsent(rs.getLong("snippet_id"), id -> new HashMap<>())
+                .put(rs.getLong("tag_id"), rs.getString("name"));
+        });
+
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                int key = id.intValue();
+                unlink(key);
+                if (languages.containsKey(id)) {
+                    link(key, languages.get(id), tags.getOrDefault(id, Map.of()));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(long id, String language, Map<Long, String> tags) {
+        if (!fits(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int key = (int) id;
+            unlink(key);
+            link(key, language, tags);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        if (!fits(id)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            unlink((int) id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the snippet id can be held in the bitmaps.
+     */
+    public static boolean fits(long id) {
+        return id >= 0 && id <= Integer.MAX_VALUE;
+    }
+
+    public void renameTag(long tagId, String name) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = tagOrdinals.get(tagId);
+            if (ordinal != null) {
+                tagNames.set(ordinal, name);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeTag(long tagId) {
+        lock.writeLock().lock();
+        try {
+            // Snippets may still list the ordinal; counting skips ordinals without a name
+            Integer ordinal = tagOrdinals.remove(tagId);
+            if (ordinal != null) {
+                tagNames.set(ordinal, null);
+                tagIds.set(ordinal, new RoaringBitmap());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the matches per language, and per tag for the {@code tagLimit} most
+     * frequent tags. Buckets are ordered by count, then value.
+     */
+    public Facets facets(RoaringBitmap matches, int tagLimit) {
+        Map<String, Integer> languageCounts = new HashMap<>();
+        Map<String, Integer> tagCounts = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int[] perLanguage = new int[languageNames.size()];
+            int[] perTag = new int[tagNames.size()];
+            if (prefersScan(matches)) {
+                int[] languageOf = this.languageOf;
+                int[][] tagsOf = this.tagsOf;
+                matches.forEach((int id) -> {
+                    if (id < languageOf.length && languageOf[id] != 0) {
+                        perLanguage[languageOf[id] - 1]++;
+                        for (int tag : tagsOf[id]) {
+                            perTag[tag]++;
+                        }
+                    }
+                });
+            } else {
+                for (int i = 0; i < perLanguage.length; i++) {
+                    perLanguage[i] = RoaringBitmap.andCardinality(languageIds.get(i), matches);
+                }
+                for (int i = 0; i < perTag.length; i++) {
+                    perTag[i] = RoaringBitmap.andCardinality(tagIds.get(i), matches);
+                }
+            }
+
+            for (int i = 0; i < perLanguage.length; i++) {
+                if (perLanguage[i] > 0) {
+                    languageCounts.put(languageNames.get(i), perLanguage[i]);
+                }
+            }
+            for (int i = 0; i < perTag.length; i++) {
+                if (perTag[i] > 0 && tagNames.get(i) != null) {
+                    tagCounts.put(tagNames.get(i), perTag[i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return toFacets(languageCounts, tagCounts, tagLimit);
+    }
+
+    // SnippetFacetBenchmark puts a scanned match at ~45ns and one facet value intersected
+    // with one 2^16 id range of the matches at ~1.5us, about 32 times as much
+    private boolean prefersScan(RoaringBitmap matches) {
+        long intersections = (long) (languageNames.size() + tagNames.size()) * matches.getContainerCount();
+        return matches.getLongCardinality() < SCAN_COST_RATIO * intersections;
+    }
+
+    /**
+     * Counts facets straight from loaded snippets, for callers that cannot use
+     * the bitmaps yet. Ordered the same way as {@link #facets}.
+     */
+    public static Facets count(Collection<Snippet> snippets, int tagLimit) {
+        Map<String, Integer> languageCounts = new HashMap<>();
+        Map<String, Integer> tagCounts = new HashMap<>();
+        for (Snippet snippet : snippets) {
+            languageCounts.merge(snippet.getLanguage(), 1, Integer::sum);
+            for (Tag tag : snippet.getTags()) {
+                tagCounts.merge(tag.getName(), 1, Integer::sum);
+            }
+        }
+        return toFacets(languageCounts, tagCounts, tagLimit);
+    }
+
+    private static Facets toFacets(Map<String, Integer> languageCounts, Map<String, Integer> tagCounts, int tagLimit) {
+        List<Bucket> languages = new ArrayList<>();
+        languageCounts.forEach((language, count) -> {
+            if (count > 0) {
+                languages.add(new Bucket(language, count));
+            }
+        });
+        languages.sort(BUCKET_ORDER);
+
+        // Least frequent of the top tags so far sits at the head
+        PriorityQueue<Bucket> topTags = new PriorityQueue<>(BUCKET_ORDER.reversed());
+        tagCounts.forEach((name, count) -> {
+            if (count > 0 && tagLimit > 0) {
+                topTags.add(new Bucket(name, count));
+                if (topTags.size() > tagLimit) {
+                    topTags.poll();
+                }
+            }
+        });
+        List<Bucket> tags = new ArrayList<>(topTags);
+        tags.sort(BUCKET_ORDER);
+        return new Facets(languages, tags);
+    }
+
+    private void link(int id, String language, Map<Long, String> tags) {
+        if (id >= languageOf.length) {
+            int capacity = Math.max(id + 1, languageOf.length * 2);
+            languageOf = Arrays.copyOf(languageOf, capacity);
+            tagsOf = Arrays.copyOf(tagsOf, capacity);
+        }
+
+        int languageOrdinal = languageOrdinals.computeIfAbsent(language, key -> {
+            languageNames.add(key);
+            languageIds.add(new RoaringBitmap());
+            return languageNames.size() - 1;
+        });
+        languageIds.get(languageOrdinal).add(id);
+        languageOf[id] = languageOrdinal + 1;
+
+        int[] ordinals = new int[tags.size()];
+        int i = 0;
+        for (Map.Entry<Long, String> tag : tags.entrySet()) {
+            int tagOrdinal = tagOrdinals.computeIfAbsent(tag.getKey(), key -> {
+                tagNames.add(null);
+                tagIds.add(new RoaringBitmap());
+                return tagNames.size() - 1;
+            });
+            tagNames.set(tagOrdinal, tag.getValue());
+            tagIds.get(tagOrdinal).add(id);
+            ordinals[i++] = tagOrdinal;
+        }
+        tagsOf[id] = ordinals;
+    }
+
+    private void unlink(int id) {
+        if (id >= languageOf.length || languageOf[id] == 0) {
+            return;
+        }
+        languageIds.get(languageOf[id] - 1).remove(id);
+        for (int tagOrdinal : tagsOf[id]) {
+            tagIds.get(tagOrdinal).remove(id);
+        }
+        languageOf[id] = 0;
+        tagsOf[id] = null;
+    }
+
+    private static Array toArray(Connection connection, Set<Long> ids) throws SQLException {
+        return connection.createArrayOf("bigint", ids.toArray());
+    }
+}
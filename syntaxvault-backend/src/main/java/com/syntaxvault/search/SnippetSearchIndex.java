@@ -0,0 +1,304 @@
+package com.syntaxvault.search;
+
+import com.syntaxvault.events.ChangeEvent;
+import com.syntaxvault.events.ChangeEventSubscriber;
+import com.syntaxvault.model.Snippet;
+import com.syntaxvault.repository.SnippetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory trigram inverted index over snippet titles and contents.
+ *
+ * Every indexed snippet carries its owner id and public flag packed into a
+ * single long, so visibility can be decided without loading any entity.
+ * Lookups return candidate ids only; callers still verify the substring match
+ * on the hydrated snippets, which keeps the original search semantics.
+ *
+ * Alongside the trigrams, every snippet is tokenized into identifier terms
+ * (see CodeTokenizer) for {@code ident:} queries, whose posting lists are far
+ * shorter than those of the trigrams inside common words.
+ *
+ * Kept current from the change outbox, so tokenizing large contents happens on
+ * the dispatcher thread rather than in the request that saved the snippet.
+ */
+@Component
+public class SnippetSearchIndex implements ChangeEventSubscriber {
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    @Autowired
+    private SnippetRepository snippetRepository;
+
+    // trigram -> ids of snippets whose lowercased title or content contains it
+    private final Map<Long, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    // identifier term (see CodeTokenizer) -> ids of snippets whose title or content uses it
+    private final Map<String, Set<Long>> identifierPostings = new ConcurrentHashMap<>();
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private volatile boolean ready = false;
+
+    /**
+     * Indexed state of a single snippet.
+     *
+     * @param bits owner id shifted left by one, with the public flag in the lowest bit
+     * @param trigrams the distinct trigrams of the snippet, kept so updates can unlink them
+     * @param identifiers the distinct identifier terms of the snippet, kept for the same reason
+     */
+    private record Entry(long bits, long[] trigrams, String[] identifiers) {
+        long ownerId() {
+            return bits >>> 1;
+        }
+
+        boolean isPublic() {
+            return (bits & 1L) != 0;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long lastId = 0;
+        List<Snippet> page;
+        do {
+            page = snippetRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, REBUILD_PAGE_SIZE));
+            for (Snippet snippet : page) {
+                // Writes that committed while we were scanning are newer than this page
+                index(snippet.getId(), snippet.getUser().getId(), snippet.getIsPublic(),
+                      snippet.getTitle(), snippet.getContent(), snippet.getLanguage(), false);
+                lastId = snippet.getId();
+            }
+        } while (page.size() == REBUILD_PAGE_SIZE);
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Re-reads every snippet the events mention and indexes its current state,
+     * or drops it when the row is gone. Redelivered events just index the same
+     * state again.
+     */
+    @Override
+    public void onChanges(List<ChangeEvent> events) {
+        Set<Long> ids = new HashSet<>();
+        for (ChangeEvent event : events) {
+            if (event.aggregate() == ChangeEvent.Aggregate.SNIPPET) {
+                ids.add(event.aggregateId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        for (Snippet snippet : snippetRepository.findAllById(ids)) {
+            index(snippet.getId(), snippet.getUser().getId(), snippet.getIsPublic(),
+                  snippet.getTitle(), snippet.getContent(), snippet.getLanguage(), true);
+            ids.remove(snippet.getId());
+        }
+        ids.forEach(this::remove);
+    }
+
+    public synchronized void index(long id, long ownerId, boolean isPublic, String title, String content) {
+        index(id, ownerId, isPublic, title, content, null, true);
+    }
+
+    public synchronized void index(long id, long ownerId, boolean isPublic, String title, String content,
+                                   String language) {
+        index(id, ownerId, isPublic, title, content, language, true);
+    }
+
+    public synchronized void remove(long id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            unlink(id, previous);
+        }
+    }
+
+    /**
+     * Returns the ids, in ascending order, of snippets visible to the given user
+     * that use every one of the identifier terms (see
+     * CodeTokenizer.parseIdentifierQuery). Unlike trigram candidates these are
+     * exact matches as of the last indexed state.
+     */
+    public List<Long> findIdentifierCandidates(List<String> terms, long userId) {
+        List<Long> result = new ArrayList<>();
+        if (terms.isEmpty()) {
+            return result;
+        }
+        List<Set<Long>> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Set<Long> ids = identifierPostings.get(term);
+            if (ids == null || ids.isEmpty()) {
+                return result;
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        for (Long id : lists.get(0)) {
+            Entry entry = entries.get(id);
+            if (entry == null || !isVisible(entry, userId)) {
+                continue;
+            }
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                inAll = lists.get(i).contains(id);
+            }
+            if (inAll) {
+                result.add(id);
+            }
+        }
+        result.sort(null);
+        return result;
+    }
+
+    /**
+     * Returns the ids, in ascending order, of snippets visible to the given user
+     * that may contain the keyword in their title or content. A keyword shorter
+     * than three characters cannot be narrowed by trigrams, so every visible
+     * snippet is returned.
+     */
+    public List<Long> findCandidates(String keyword, long userId) {
+        List<Long> result = new ArrayList<>();
+        long[] queryTrigrams = keyword == null ? new long[0] : trigrams(keyword.toLowerCase());
+
+        if (queryTrigrams.length == 0) {
+            entries.forEach((id, entry) -> {
+                if (isVisible(entry, userId)) {
+                    result.add(id);
+                }
+            });
+        } else {
+            List<Set<Long>> lists = new ArrayList<>(queryTrigrams.length);
+            for (long trigram : queryTrigrams) {
+                Set<Long> ids = postings.get(trigram);
+                if (ids == null || ids.isEmpty()) {
+                    return result;
+                }
+                lists.add(ids);
+            }
+            // Walk the shortest posting list and probe the others
+            lists.sort(Comparator.comparingInt(Set::size));
+            Set<Long> smallest = lists.get(0);
+            for (Long id : smallest) {
+                Entry entry = entries.get(id);
+                if (entry == null || !isVisible(entry, userId)) {
+                    continue;
+                }
+                boolean inAll = true;
+                for (int i = 1; i < lists.size() && inAll; i++) {
+                    inAll = lists.get(i).contains(id);
+                }
+                if (inAll) {
+                    result.add(id);
+                }
+            }
+        }
+
+        result.sort(null);
+        return result;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private synchronized void index(long id, long ownerId, boolean isPublic, String title, String content,
+                                    String language, boolean replace) {
+        Entry previous = entries.get(id);
+        if (previous != null) {
+            if (!replace) {
+                return;
+            }
+            unlink(id, previous);
+        }
+
+        long[] docTrigrams = documentTrigrams(title, content);
+        for (long trigram : docTrigrams) {
+            postings.computeIfAbsent(trigram, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        String[] identifiers = documentIdentifiers(title, content, language);
+        for (String identifier : identifiers) {
+            identifierPostings.computeIfAbsent(identifier, k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        entries.put(id, new Entry((ownerId << 1) | (isPublic ? 1L : 0L), docTrigrams, identifiers));
+    }
+
+    private void unlink(long id, Entry previous) {
+        for (String identifier : previous.identifiers()) {
+            Set<Long> ids = identifierPostings.get(identifier);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    identifierPostings.remove(identifier, ids);
+                }
+            }
+        }
+        for (long trigram : previous.trigrams()) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(trigram, ids);
+                }
+            }
+        }
+    }
+
+    private static boolean isVisible(Entry entry, long userId) {
+        return entry.isPublic() || entry.ownerId() == userId;
+    }
+
+    private static String[] documentIdentifiers(String title, String content, String language) {
+        Set<String> terms = CodeTokenizer.terms(title, language);
+        terms.addAll(CodeTokenizer.terms(content, language));
+        return terms.toArray(new String[0]);
+    }
+
+    private static long[] documentTrigrams(String title, String content) {
+        long[] titleTrigrams = trigrams(title == null ? "" : title.toLowerCase());
+        long[] contentTrigrams = trigrams(content == null ? "" : content.toLowerCase());
+        long[] merged = Arrays.copyOf(titleTrigrams, titleTrigrams.length + contentTrigrams.length);
+        System.arraycopy(contentTrigrams, 0, merged, titleTrigrams.length, contentTrigrams.length);
+        return distinct(merged);
+    }
+
+    // Packs every run of three chars into one long: 16 bits per char
+    static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] result = new long[text.length() - 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        return distinct(result);
+    }
+
+    private static long[] distinct(long[] values) {
+        if (values.length == 0) {
+            return values;
+        }
+        Arrays.sort(values);
+        int n = 1;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] != values[n - 1]) {
+                values[n++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, n);
+    }
+}
@@ -0,0 +1,417 @@
+package com.syntaxvault.search;
+
+import com.syntaxvault.events.ChangeEvent;
+import com.syntaxvault.events.ChangeEventSubscriber;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory prefix index over tag names for autocomplete.
+ *
+ * Readers binary-search a sorted array of lowercased keys in an immutable
+ * snapshot and never take a lock; writers are serialized and publish a new
+ * snapshot. Each tag is keyed by its full name and by every segment after a
+ * separator, so "boot" also suggests "spring-boot". Suggestions are ranked by
+ * how many snippets use the tag.
+ *
+ * Names are maintained incrementally as tags are created, renamed or deleted.
+ * When the change outbox reports snippet changes, only the tags those snippets
+ * link to now or linked to before are recounted from Snippet_Tags; the index
+ * remembers the tag ids of every snippet for that.
+ */
+@Component
+public class TagPrefixIndex implements ChangeEventSubscriber {
+
+    private static final String LOAD_SQL =
+        "SELECT t.id, t.name, count(st.snippet_id) AS usage FROM Tags t " +
+        "LEFT JOIN Snippet_Tags st ON st.tag_id = t.id GROUP BY t.id, t.name";
+
+    private static final String LINKS_SQL = "SELECT snippet_id, tag_id FROM Snippet_Tags";
+
+    private static final String LINKS_BY_SNIPPET_SQL = LINKS_SQL + " WHERE snippet_id = ANY(?)";
+
+    private static final String USAGE_SQL =
+        "SELECT tag_id, count(*) AS usage FROM Snippet_Tags WHERE tag_id = ANY(?) GROUP BY tag_id";
+
+    private static final long[] NO_TAGS = new long[0];
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Tags live in slots; the slot of a deleted tag is simply no longer referenced by any key
+    private final Map<Long, Integer> slotById = new HashMap<>();
+
+    private int nextSlot = 0;
+
+    // Tag ids per snippet id as of the last load or change, so tags a snippet drops are recounted too
+    private final Map<Long, long[]> tagsOf = new HashMap<>();
+
+    private volatile Snapshot snapshot = new Snapshot(new String[0], new int[0],
+        new long[INITIAL_CAPACITY], new String[INITIAL_CAPACITY], new int[INITIAL_CAPACITY]);
+
+    private volatile boolean ready = false;
+
+    /**
+     * A suggested tag.
+     *
+     * @param usage number of snippets carrying the tag when counts were last refreshed
+     */
+    public record Suggestion(long id, String name, int usage) {
+    }
+
+    /**
+     * @param keys lowercased names and name segments, sorted, paired with {@code slots}
+     * @param slots the slot of the tag each key belongs to
+     * @param ids tag id per slot
+     * @param names tag name per slot
+     * @param usage snippet count per slot
+     */
+    private record Snapshot(String[] keys, int[] slots, long[] ids, String[] names, int[] usage) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        // Holding the lock makes concurrent put/remove calls apply on top of what we load
+        List<Long> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<Integer> usage = new ArrayList<>();
+        jdbcTemplate.query(LOAD_SQL, rs -> {
+            ids.add(rs.getLong("id"));
+            names.add(rs.getString("name"));
+            usage.add(rs.getInt("usage"));
+        });
+
+        int capacity = Math.max(INITIAL_CAPACITY, ids.size() * 2);
+        long[] slotIds = new long[capacity];
+        String[] slotNames = new String[capacity];
+        int[] slotUsage = new int[capacity];
+        List<String> keyList = new ArrayList<>();
+        List<Integer> slotList = new ArrayList<>();
+        slotById.clear();
+        for (int slot = 0; slot < ids.size(); slot++) {
+            slotIds[slot] = ids.get(slot);
+            slotNames[slot] = names.get(slot);
+            slotUsage[slot] = usage.get(slot);
+            slotById.put(ids.get(slot), slot);
+            for (String key : keysOf(names.get(slot))) {
+                keyList.add(key);
+                slotList.add(slot);
+            }
+        }
+        nextSlot = ids.size();
+
+        Map<Long, List<Long>> links = new HashMap<>();
+        jdbcTemplate.query(LINKS_SQL, rs -> {
+            links.computeIfAbsent(rs.getLong("snippet_id"), id -> new ArrayList<>()).add(rs.getLong("tag_id"));
+        });
+        tagsOf.clear();
+        links.forEach((snippetId, tagIds) -> relink(snippetId, toLongs(tagIds)));
+
+        Integer[] order = new Integer[keyList.size()];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, (a, b) -> {
+            int byKey = keyList.get(a).compareTo(keyList.get(b));
+            return byKey != 0 ? byKey : Integer.compare(slotList.get(a), slotList.get(b));
+        });
+        String[] keys = new String[order.length];
+        int[] slots = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            keys[i] = keyList.get(order[i]);
+            slots[i] = slotList.get(order[i]);
+        }
+        snapshot = new Snapshot(keys, slots, slotIds, slotNames, slotUsage);
+        ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Refreshes usage counts of the tags of snippets that were created, changed
+     * or deleted, since any of those may add or drop tag links.
+     */
+    @Override
+    public void onChanges(List<ChangeEvent> events) {
+        Set<Long> ids = new HashSet<>();
+        for (ChangeEvent event : events) {
+            if (event.aggregate() == ChangeEvent.Aggregate.SNIPPET) {
+                ids.add(event.aggregateId());
+            }
+        }
+        if (!ids.isEmpty()) {
+            refreshUsage(ids);
+        }
+    }
+
+    // Queries run under the lock so a concurrent rebuild cannot be overwritten with older links
+    public synchronized void refreshUsage(Set<Long> snippetIds) {
+        Map<Long, List<Long>> links = new HashMap<>();
+        jdbcTemplate.query(LINKS_BY_SNIPPET_SQL, ps -> ps.setArray(1, toArray(ps.getConnection(), snippetIds)), rs -> {
+            links.computeIfAbsent(rs.getLong("snippet_id"), id -> new ArrayList<>()).add(rs.getLong("tag_id"));
+        });
+        Set<Long> affected = new HashSet<>();
+        for (Long snippetId : snippetIds) {
+            affected.addAll(relink(snippetId, toLongs(links.getOrDefault(snippetId, List.of()))));
+        }
+        if (affected.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> usage = new HashMap<>();
+        jdbcTemplate.query(USAGE_SQL, ps -> ps.setArray(1, toArray(ps.getConnection(), affected)), rs -> {
+            usage.put(rs.getLong("tag_id"), rs.getInt("usage"));
+        });
+        affected.forEach(tagId -> usage.putIfAbsent(tagId, 0));
+        setUsage(usage);
+    }
+
+    /**
+     * Records the tags a snippet now carries and returns the ids of the tags it
+     * carried before together with the new ones, whose counts may have moved.
+     */
+    public synchronized Set<Long> relink(long snippetId, long[] tagIds) {
+        long[] previous = tagIds.length > 0 ? tagsOf.put(snippetId, tagIds) : tagsOf.remove(snippetId);
+        Set<Long> affected = new HashSet<>();
+        for (long tagId : previous != null ? previous : NO_TAGS) {
+            affected.add(tagId);
+        }
+        for (long tagId : tagIds) {
+            affected.add(tagId);
+        }
+        return affected;
+    }
+
+    /**
+     * Sets the usage counts of the given tags and keeps every other count.
+     */
+    public synchronized void setUsage(Map<Long, Integer> usage) {
+        Snapshot current = snapshot;
+        int[] counts = current.usage().clone();
+        usage.forEach((id, count) -> {
+            Integer slot = slotById.get(id);
+            if (slot != null) {
+                counts[slot] = count;
+            }
+        });
+        snapshot = new Snapshot(current.keys(), current.slots(), current.ids(), current.names(), counts);
+    }
+
+    /**
+     * Adds a tag, or re-keys it after a rename. Keeps its current usage count.
+     */
+    public synchronized void put(long id, String name) {
+        Snapshot current = snapshot;
+        Integer existing = slotById.get(id);
+        if (existing != null) {
+            int slot = existing;
+            String[] names = current.names().clone();
+            names[slot] = name;
+            Snapshot renamed = rekey(current, slot, keysOf(current.names()[slot]), keysOf(name));
+            snapshot = new Snapshot(renamed.keys(), renamed.slots(), current.ids(), names, current.usage());
+            return;
+        }
+
+        long[] ids = current.ids();
+        String[] names = current.names();
+        int[] usage = current.usage();
+        if (nextSlot == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+            names = Arrays.copyOf(names, names.length * 2);
+            usage = Arrays.copyOf(usage, usage.length * 2);
+        }
+        // No published key points at a fresh slot yet, so it can be filled in place
+        int slot = nextSlot++;
+        ids[slot] = id;
+        names[slot] = name;
+        usage[slot] = 0;
+        slotById.put(id, slot);
+        Snapshot added = rekey(current, slot, List.of(), keysOf(name));
+        snapshot = new Snapshot(added.keys(), added.slots(), ids, names, usage);
+    }
+
+    public synchronized void remove(long id) {
+        Integer slot = slotById.remove(id);
+        if (slot != null) {
+            Snapshot current = snapshot;
+            snapshot = rekey(current, slot, keysOf(current.names()[slot]), List.of());
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} tags with a name, or a name segment, starting
+     * with the prefix (ignoring case), most used first. Ties go to the shorter
+     * and then alphabetically first name.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        String needle = prefix.trim().toLowerCase(Locale.ROOT);
+        Snapshot current = snapshot;
+        String[] keys = current.keys();
+        int[] slots = current.slots();
+
+        // Best slots so far, best first; most keys in a wide range fail the first comparison
+        int[] best = new int[limit];
+        int found = 0;
+        for (int i = lowerBound(keys, slots, needle, -1); i < keys.length && keys[i].startsWith(needle); i++) {
+            int slot = slots[i];
+            if (found == limit && !ranksBefore(current, slot, best[found - 1])) {
+                continue;
+            }
+            if (contains(best, found, slot)) {
+                continue;
+            }
+            int at = found == limit ? limit - 1 : found++;
+            while (at > 0 && ranksBefore(current, slot, best[at - 1])) {
+                best[at] = best[at - 1];
+                at--;
+            }
+            best[at] = slot;
+        }
+
+        List<Suggestion> result = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            int slot = best[i];
+            result.add(new Suggestion(current.ids()[slot], current.names()[slot], current.usage()[slot]));
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return slotById.size();
+    }
+
+    private static boolean ranksBefore(Snapshot snapshot, int slot, int other) {
+        int usage = snapshot.usage()[slot];
+        int otherUsage = snapshot.usage()[other];
+        if (usage != otherUsage) {
+            return usage > otherUsage;
+        }
+        String name = snapshot.names()[slot];
+        String otherName = snapshot.names()[other];
+        if (name.length() != otherName.length()) {
+            return name.length() < otherName.length();
+        }
+        return name.compareTo(otherName) < 0;
+    }
+
+    private static boolean contains(int[] slots, int count, int slot) {
+        for (int i = 0; i < count; i++) {
+            if (slots[i] == slot) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the snapshot with the slot's {@code removed} keys dropped and its
+     * {@code added} keys inserted, copying the untouched runs in between.
+     */
+    private static Snapshot rekey(Snapshot current, int slot, List<String> removed, List<String> added) {
+        String[] keys = current.keys();
+        int[] slots = current.slots();
+
+        int[] removeAt = new int[removed.size()];
+        int r = 0;
+        for (String key : removed) {
+            int at = lowerBound(keys, slots, key, slot);
+            if (at < keys.length && keys[at].equals(key) && slots[at] == slot) {
+                removeAt[r++] = at;
+            }
+        }
+        removeAt = Arrays.copyOf(removeAt, r);
+        Arrays.sort(removeAt);
+
+        String[] insert = added.toArray(new String[0]);
+        Arrays.sort(insert);
+        int[] insertAt = new int[insert.length];
+        for (int a = 0; a < insert.length; a++) {
+            insertAt[a] = lowerBound(keys, slots, insert[a], slot);
+        }
+
+        String[] newKeys = new String[keys.length - removeAt.length + insert.length];
+        int[] newSlots = new int[newKeys.length];
+        int src = 0, dst = 0, a = 0;
+        r = 0;
+        while (true) {
+            int next = Math.min(r < removeAt.length ? removeAt[r] : keys.length,
+                                a < insert.length ? insertAt[a] : keys.length);
+            System.arraycopy(keys, src, newKeys, dst, next - src);
+            System.arraycopy(slots, src, newSlots, dst, next - src);
+            dst += next - src;
+            src = next;
+            if (a < insert.length && insertAt[a] == src) {
+                newKeys[dst] = insert[a++];
+                newSlots[dst++] = slot;
+            } else if (r < removeAt.length && removeAt[r] == src) {
+                src++;
+                r++;
+            } else {
+                break;
+            }
+        }
+        return new Snapshot(newKeys, newSlots, current.ids(), current.names(), current.usage());
+    }
+
+    /**
+     * First position whose (key, slot) is not below the given pair; a slot of -1
+     * finds the first position with a key not below {@code key}.
+     */
+    private static int lowerBound(String[] keys, int[] slots, String key, int slot) {
+        int low = 0, high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int cmp = keys[mid].compareTo(key);
+            if (cmp < 0 || (cmp == 0 && slots[mid] < slot)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static List<String> keysOf(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(lower);
+        for (int i = 1; i < lower.length(); i++) {
+            if (isSeparator(lower.charAt(i - 1)) && !isSeparator(lower.charAt(i))) {
+                keys.add(lower.substring(i));
+            }
+        }
+        return new ArrayList<>(keys);
+    }
+
+    private static long[] toLongs(List<Long> values) {
+        return values.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static Array toArray(Connection connection, Set<Long> ids) throws SQLException {
+        return connection.createArrayOf("bigint", ids.toArray());
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == '-' || c == '_' || c == '.' || c == '/' || c == ' ';
+    }
+}
@@ -0,0 +1,38 @@
+package com.syntaxvault.security;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The user behind the current request, as established by JwtRequestFilter.
+ *
+ * Carries what request handling needs to know about the caller (id, username
+ * and roles) so that controllers and services no longer load the User row
+ * just to find out who is asking. Declare it as a controller method parameter
+ * to receive it.
+ */
+public record AuthenticatedUser(Long id, String username, Set<String> roles) implements AuthenticatedPrincipal {
+
+    public AuthenticatedUser {
+        roles = roles == null ? Set.of() : Set.copyOf(roles);
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    public boolean isAdmin() {
+        return roles.contains("ROLE_ADMIN");
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return roles.stream()
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toList());
+    }
+}
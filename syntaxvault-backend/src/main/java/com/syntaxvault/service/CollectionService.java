@@ -9,14 +9,22 @@ import com.syntaxvault.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.security.core.context.SecurityContextHolder;
-import com.syntaxvault.model.User;
+import com.syntaxvault.security.AuthenticatedUser;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import com.syntaxvault.dto.CollectionDTO;
+import com.syntaxvault.dto.CollectionMembershipRequest;
+import com.syntaxvault.dto.CollectionMembershipResult;
 import com.syntaxvault.mapper.CollectionMapper;
+import com.syntaxvault.config.CacheConfig;
+import com.syntaxvault.events.ChangeEvent;
+import com.syntaxvault.events.ChangeOutbox;
+import org.springframework.cache.annotation.Cacheable;
 
 @Service
 public class CollectionService {
@@ -33,28 +41,31 @@ public class CollectionService {
     @Autowired
     private CollectionMapper collectionMapper; // Assume you have a mapper
 
+    @Autowired
+    private PublicContentCache publicContentCache;
+
+    @Autowired
+    private ChangeOutbox changeOutbox;
+
     @Transactional
-    public CollectionDTO createCollection(CollectionRequest collectionRequest) {
-        // Retrieve the authenticated user
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-                      .orElseThrow(() -> new RuntimeException("User not found"));
+    public CollectionDTO createCollection(CollectionRequest collectionRequest, AuthenticatedUser user) {
 
         Collection collection = new Collection();
         collection.setName(collectionRequest.getName());
-        collection.setUser(user);
+        collection.setUser(userRepository.getReferenceById(user.id()));
         collection.setIsPublic(collectionRequest.getIsPublic());
 
         if (collectionRequest.getSnippetIds() != null) {
+            checkSnippetsAllowed(collectionRequest.getSnippetIds(), user.id(), collection.getIsPublic());
             Set<Snippet> snippets = collectionRequest.getSnippetIds().stream()
-                                        .map(id -> snippetRepository.findById(id)
-                                            .orElseThrow(() -> new RuntimeException("Snippet not found")))
-                                        .filter(snippet -> !collection.getIsPublic() || snippet.getIsPublic()) // Only allow public snippets in public collections
+                                        .map(snippetRepository::getReferenceById)
                                         .collect(Collectors.toSet());
             collection.setSnippets(snippets);
         }
 
         Collection savedCollection = collectionRepository.save(collection);
+        changeOutbox.record(ChangeEvent.Aggregate.COLLECTION, savedCollection.getId(), ChangeEvent.Type.CREATED);
+        publicContentCache.collectionChanged(savedCollection.getId(), false, savedCollection.getIsPublic());
         return collectionMapper.toDTO(savedCollection);
     }
 
@@ -64,23 +75,35 @@ public class CollectionService {
     }
 
     @Transactional(readOnly = true)
-    public List<CollectionDTO> getAllCollectionsDTO(){
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        List<Collection> collections = collectionRepository.findByUserUsername(username);
-        return collections.stream()
-                          .map(collectionMapper::toDTO)
-                          .collect(Collectors.toList());
+    public List<CollectionDTO> getAllCollectionsDTO(AuthenticatedUser user){
+        return toDTOs(collectionRepository.findByUserIdWithUser(user.id()));
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_COLLECTION_FEED, key = "'all'")
     public List<CollectionDTO> getPublicCollections() {
-        List<Collection> collections = collectionRepository.findByIsPublicTrue();
+        return toDTOs(collectionRepository.findPublicWithUser());
+    }
+
+    // Maps a list of collections with one membership query instead of one per collection
+    private List<CollectionDTO> toDTOs(List<Collection> collections) {
+        if (collections.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Set<Long>> members = new HashMap<>();
+        for (Collection collection : collections) {
+            members.put(collection.getId(), new HashSet<>());
+        }
+        for (Object[] row : collectionRepository.findMembershipsByIds(members.keySet())) {
+            members.get((Long) row[0]).add((Long) row[1]);
+        }
         return collections.stream()
-                         .map(collectionMapper::toDTO)
-                         .collect(Collectors.toList());
+                          .map(collection -> collectionMapper.toDTO(collection, members.get(collection.getId())))
+                          .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_COLLECTIONS, key = "#id", unless = "#result == null")
     public Optional<CollectionDTO> getPublicCollectionById(Long id) {
         Optional<Collection> collection = collectionRepository.findByIdAndIsPublicTrue(id);
         return collection.map(collectionMapper::toDTO);
@@ -91,25 +114,75 @@ public class CollectionService {
         Collection collection = collectionRepository.findById(id)
                                 .orElseThrow(() -> new RuntimeException("Collection not found"));
 
+        boolean wasPublic = collection.getIsPublic();
         collection.setName(collectionRequest.getName());
         collection.setIsPublic(collectionRequest.getIsPublic());
 
         if (collectionRequest.getSnippetIds() != null) {
-            Set<Snippet> snippets = collectionRequest.getSnippetIds().stream()
-                                        .map(snippetId -> snippetRepository.findById(snippetId)
-                                            .orElseThrow(() -> new RuntimeException("Snippet not found")))
-                                        .filter(snippet -> !collection.getIsPublic() || snippet.getIsPublic()) // Only allow public snippets in public collections
-                                        .collect(Collectors.toSet());
-            collection.setSnippets(snippets);
+            checkSnippetsAllowed(collectionRequest.getSnippetIds(), collection.getUser().getId(), collection.getIsPublic());
+        } else if (!wasPublic && collection.getIsPublic() && collectionRepository.countPrivateSnippetsById(id) > 0) {
+            throw new RuntimeException("Remove the private snippets before making this collection public");
         }
 
         Collection updatedCollection = collectionRepository.save(collection);
+
+        if (collectionRequest.getSnippetIds() != null) {
+            // Apply only the difference to the join table instead of rewriting every membership row
+            Set<Long> wanted = collectionRequest.getSnippetIds();
+            Set<Long> current = new HashSet<>(collectionRepository.findSnippetIdsById(id));
+            Set<Long> toAdd = new HashSet<>(wanted);
+            toAdd.removeAll(current);
+            current.removeAll(wanted);
+            if (!toAdd.isEmpty()) {
+                collectionRepository.addSnippets(id, toAdd.toArray(new Long[0]));
+            }
+            if (!current.isEmpty()) {
+                collectionRepository.removeSnippets(id, current.toArray(new Long[0]));
+            }
+        }
+        changeOutbox.record(ChangeEvent.Aggregate.COLLECTION, id, ChangeEvent.Type.UPDATED);
+        publicContentCache.collectionChanged(id, wasPublic, updatedCollection.getIsPublic());
         return collectionMapper.toDTO(updatedCollection);
     }
 
+    /**
+     * Adds and removes individual snippets without touching the rest of the
+     * collection's memberships. Every added snippet must belong to the caller
+     * or be public, and must be public if the collection is.
+     */
+    @Transactional
+    public CollectionMembershipResult updateMembership(Long id, CollectionMembershipRequest request, AuthenticatedUser user) {
+        Collection collection = collectionRepository.findById(id)
+                                .orElseThrow(() -> new RuntimeException("Collection not found"));
+
+        if (!collection.getUser().getId().equals(user.id())) {
+            throw new RuntimeException("You don't have permission to modify this collection");
+        }
+
+        int added = 0;
+        if (request.getAdd() != null && !request.getAdd().isEmpty()) {
+            checkSnippetsAllowed(request.getAdd(), user.id(), collection.getIsPublic());
+            added = collectionRepository.addSnippets(id, request.getAdd().toArray(new Long[0]));
+        }
+
+        int removed = 0;
+        if (request.getRemove() != null && !request.getRemove().isEmpty()) {
+            removed = collectionRepository.removeSnippets(id, request.getRemove().toArray(new Long[0]));
+        }
+
+        if (added > 0 || removed > 0) {
+            changeOutbox.record(ChangeEvent.Aggregate.COLLECTION, id, ChangeEvent.Type.UPDATED);
+            publicContentCache.collectionChanged(id, collection.getIsPublic(), collection.getIsPublic());
+        }
+        return new CollectionMembershipResult(id, added, removed);
+    }
+
     @Transactional
     public void deleteCollection(Long id){
         collectionRepository.deleteById(id);
+        changeOutbox.record(ChangeEvent.Aggregate.COLLECTION, id, ChangeEvent.Type.DELETED);
+        // Visibility is unknown without loading the row, so evict unconditionally
+        publicContentCache.collectionChanged(id, true, true);
     }
 
     @Transactional(readOnly = true)
@@ -120,4 +193,32 @@ public class CollectionService {
         }
         return collectionMapper.toDTO(collection);
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks with one query that every snippet exists, belongs to the owner or
+     * is public, and is public if the collection is. Create, update and the
+     * membership PATCH all go through here, so they accept the same snippets.
+     */
+    private void checkSnippetsAllowed(Set<Long> snippetIds, Long ownerId, boolean collectionIsPublic) {
+        if (snippetIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Object[]> accessInfo = new HashMap<>();
+        for (Object[] row : snippetRepository.findAccessInfoByIdIn(snippetIds)) {
+            accessInfo.put((Long) row[0], row);
+        }
+        for (Long snippetId : snippetIds) {
+            Object[] info = accessInfo.get(snippetId);
+            if (info == null) {
+                throw new RuntimeException("Snippet not found: " + snippetId);
+            }
+            boolean snippetIsPublic = (Boolean) info[2];
+            if (!ownerId.equals(info[1]) && !snippetIsPublic) {
+                throw new RuntimeException("You don't have permission to add snippet " + snippetId);
+            }
+            if (collectionIsPublic && !snippetIsPublic) {
+                throw new RuntimeException("Only public snippets can be added to a public collection");
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.syntaxvault.service;
+
+import com.syntaxvault.repository.CollectionRepository;
+import com.syntaxvault.repository.ContentVersionView;
+import com.syntaxvault.repository.SnippetRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Strong ETags for the list and item endpoints, derived from one aggregate
+ * query over the rows a response would contain. Computing one never loads or
+ * serializes an entity, so an unchanged poll costs an index-only scan.
+ */
+@Service
+public class ContentVersionService {
+
+    @Autowired
+    private SnippetRepository snippetRepository;
+
+    @Autowired
+    private CollectionRepository collectionRepository;
+
+    public String userSnippetsETag(Long userId) {
+        return "us" + userId + "-" + format(snippetRepository.findVersionByUserId(userId));
+    }
+
+    public String publicSnippetsETag() {
+        return "ps-" + format(snippetRepository.findPublicVersion());
+    }
+
+    public String snippetETag(Long id) {
+        return "s" + id + "-" + format(snippetRepository.findVersionById(id));
+    }
+
+    public String publicSnippetETag(Long id) {
+        return "p" + id + "-" + format(snippetRepository.findPublicVersionById(id));
+    }
+
+    public String userCollectionsETag(Long userId) {
+        return "uc" + userId + "-" + format(collectionRepository.findVersionByUserId(userId));
+    }
+
+    public String publicCollectionsETag() {
+        return "pc-" + format(collectionRepository.findPublicVersion());
+    }
+
+    public String collectionETag(Long id) {
+        return "c" + id + "-" + format(collectionRepository.findVersionById(id));
+    }
+
+    public String publicCollectionETag(Long id) {
+        return "pc" + id + "-" + format(collectionRepository.findPublicVersionById(id));
+    }
+
+    private static String format(ContentVersionView version) {
+        long lastModified = version.getLastModified() == null ? 0
+            : ChronoUnit.MICROS.between(Instant.EPOCH, version.getLastModified().toInstant(ZoneOffset.UTC));
+        // Only the low bits matter for a checksum, so overflowing sums are fine
+        long checksum = version.getChecksum() == null ? 0 : version.getChecksum().longValue();
+        long tagVersion = version.getTagVersion() == null ? 0 : version.getTagVersion();
+        return version.getCount() + "-" + Long.toHexString(lastModified) + "-"
+            + Long.toHexString(checksum) + "-" + tagVersion;
+    }
+}
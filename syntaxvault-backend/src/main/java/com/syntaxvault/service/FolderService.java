@@ -2,18 +2,27 @@ package com.syntaxvault.service;
 
 import com.syntaxvault.dto.FolderDTO;
 import com.syntaxvault.dto.FolderRequest;
+import com.syntaxvault.dto.FolderTreeDTO;
+import com.syntaxvault.events.ChangeEvent;
+import com.syntaxvault.events.ChangeOutbox;
 import com.syntaxvault.model.Folder;
-import com.syntaxvault.model.User;
 import com.syntaxvault.repository.FolderRepository;
 import com.syntaxvault.repository.UserRepository;
 import com.syntaxvault.mapper.FolderMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.syntaxvault.security.AuthenticatedUser;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,11 +37,13 @@ public class FolderService {
     @Autowired
     private FolderMapper folderMapper;
 
+    @Autowired
+    private ChangeOutbox changeOutbox;
+
     @Transactional
-    public FolderDTO createFolder(FolderRequest folderRequest) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+    public FolderDTO createFolder(FolderRequest folderRequest, AuthenticatedUser user) {
+        String username = user.username();
+        validateName(folderRequest.getName());
 
         // Check if folder with same name exists at the same level
         if (folderRequest.getParentId() != null) {
@@ -45,7 +56,7 @@ public class FolderService {
 
         Folder folder = new Folder();
         folder.setName(folderRequest.getName());
-        folder.setUser(user);
+        folder.setUser(userRepository.getReferenceById(user.id()));
 
         if (folderRequest.getParentId() != null) {
             Folder parent = folderRepository.findById(folderRequest.getParentId())
@@ -55,66 +66,192 @@ public class FolderService {
 
         folder.updatePath();
         Folder savedFolder = folderRepository.save(folder);
+        changeOutbox.record(ChangeEvent.Aggregate.FOLDER, savedFolder.getId(), ChangeEvent.Type.CREATED);
         return folderMapper.toDTO(savedFolder);
     }
 
     @Transactional(readOnly = true)
-    public List<FolderDTO> getRootFolders() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return folderRepository.findByUserUsernameAndParentIsNull(username).stream()
-            .map(folderMapper::toDTO)
+    public List<FolderDTO> getRootFolders(AuthenticatedUser user) {
+        return buildFolderDTOs(folderRepository.findTreeRowsByUserId(user.id()),
+                               folderRepository.findSnippetIdsPerFolder(user.id()), user.username()).values().stream()
+            .filter(folder -> folder.getParentId() == null)
             .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public Optional<FolderDTO> getFolderById(Long id) {
-        return folderRepository.findByIdWithSubfolders(id)
-            .map(folderMapper::toDTO);
+        return folderRepository.findByIdWithUser(id).map(folder -> {
+            Long userId = folder.getUser().getId();
+            String descendantPattern = folder.descendantPathPattern();
+            return buildFolderDTOs(folderRepository.findSubtreeRows(userId, id, descendantPattern),
+                                   folderRepository.findSnippetIdsPerFolderInSubtree(userId, id, descendantPattern),
+                                   folder.getUser().getUsername()).get(id);
+        });
     }
 
+    /**
+     * Renames and/or moves a folder together with its whole subtree. Descendant
+     * paths are rewritten by a single set-based UPDATE, so the subtree is never
+     * loaded into the persistence context.
+     */
     @Transactional
-    public FolderDTO updateFolder(Long id, FolderRequest folderRequest) {
+    public FolderDTO updateFolder(Long id, FolderRequest folderRequest, AuthenticatedUser user) {
         Folder folder = folderRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Folder not found"));
 
-        // Check if new name would conflict with existing folders at the same level
-        if (!folder.getName().equals(folderRequest.getName())) {
+        if (!folder.getUser().getId().equals(user.id())) {
+            throw new RuntimeException("You don't have permission to update this folder");
+        }
+        validateName(folderRequest.getName());
+
+        Long currentParentId = folder.getParent() != null ? folder.getParent().getId() : null;
+        boolean renamed = !folder.getName().equals(folderRequest.getName());
+        boolean moved = !Objects.equals(currentParentId, folderRequest.getParentId());
+
+        // Check if the new name or location would conflict with existing folders at the same level
+        if (renamed || moved) {
             if (folderRequest.getParentId() != null) {
                 if (folderRepository.existsByParentIdAndName(folderRequest.getParentId(), folderRequest.getName())) {
                     throw new RuntimeException("A folder with this name already exists in the selected location");
                 }
             } else if (folderRepository.existsByNameAndUserUsernameAndParentIsNull(
-                    folderRequest.getName(), folder.getUser().getUsername())) {
+                    folderRequest.getName(), user.username())) {
                 throw new RuntimeException("A root folder with this name already exists");
             }
         }
 
+        String oldPath = folder.getPath();
+        String descendantPattern = folder.descendantPathPattern();
         folder.setName(folderRequest.getName());
 
-        if (folderRequest.getParentId() != null && 
-            (folder.getParent() == null || !folder.getParent().getId().equals(folderRequest.getParentId()))) {
+        if (moved && folderRequest.getParentId() != null) {
             Folder newParent = folderRepository.findById(folderRequest.getParentId())
                 .orElseThrow(() -> new RuntimeException("Parent folder not found"));
+            if (!newParent.getUser().getId().equals(user.id())) {
+                throw new RuntimeException("You don't have permission to move to this folder");
+            }
+            // The new parent must not be the folder itself or lie inside its subtree
+            if (newParent.getId().equals(folder.getId()) || newParent.getPath().startsWith(oldPath + "/")) {
+                throw new RuntimeException("A folder cannot be moved into itself or one of its subfolders");
+            }
             folder.setParent(newParent);
-        } else if (folderRequest.getParentId() == null && folder.getParent() != null) {
+        } else if (moved) {
             folder.setParent(null);
         }
 
         folder.updatePath();
         Folder updatedFolder = folderRepository.save(folder);
-        return folderMapper.toDTO(updatedFolder);
+
+        if (!oldPath.equals(updatedFolder.getPath())) {
+            folderRepository.rewriteDescendantPaths(user.id(), oldPath, descendantPattern, updatedFolder.getPath());
+        }
+        changeOutbox.record(ChangeEvent.Aggregate.FOLDER, id, ChangeEvent.Type.UPDATED);
+        return folderMapper.toShallowDTO(updatedFolder);
     }
 
     @Transactional
     public void deleteFolder(Long id) {
         folderRepository.deleteById(id);
+        changeOutbox.record(ChangeEvent.Aggregate.FOLDER, id, ChangeEvent.Type.DELETED);
     }
 
     @Transactional(readOnly = true)
-    public List<FolderDTO> getAllFolders() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        return folderRepository.findByUserUsername(username).stream()
-            .map(folderMapper::toDTO)
-            .collect(Collectors.toList());
+    public List<FolderDTO> getAllFolders(AuthenticatedUser user) {
+        return new ArrayList<>(buildFolderDTOs(folderRepository.findTreeRowsByUserId(user.id()),
+                                               folderRepository.findSnippetIdsPerFolder(user.id()), user.username()).values());
+    }
+
+    /**
+     * Builds a FolderDTO, with its nested subfolders and snippet ids, for every
+     * folder row, keyed by id in path order. The rows come from two queries,
+     * over the whole vault or one subtree, instead of walking the entity
+     * graph, which costs a query per folder and level.
+     */
+    private Map<Long, FolderDTO> buildFolderDTOs(List<Object[]> rows, List<Object[]> snippetRows, String username) {
+        Map<Long, Set<Long>> snippetIds = new HashMap<>();
+        for (Object[] row : snippetRows) {
+            snippetIds.computeIfAbsent((Long) row[0], folderId -> new HashSet<>()).add((Long) row[1]);
+        }
+
+        Map<Long, FolderDTO> folders = new LinkedHashMap<>(rows.size() * 2);
+        Map<Long, List<Long>> children = new HashMap<>();
+        for (Object[] row : rows) {
+            FolderDTO dto = new FolderDTO();
+            dto.setId((Long) row[0]);
+            dto.setParentId((Long) row[1]);
+            dto.setName((String) row[2]);
+            dto.setPath((String) row[3]);
+            dto.setUsername(username);
+            dto.setSnippetIds(snippetIds.getOrDefault(dto.getId(), new HashSet<>()));
+            dto.setSubfolders(new HashSet<>());
+            folders.put(dto.getId(), dto);
+            if (dto.getParentId() != null) {
+                children.computeIfAbsent(dto.getParentId(), parentId -> new ArrayList<>()).add(dto.getId());
+            }
+        }
+
+        // FolderDTO hashes by value, so a folder may only join its parent's set once its own subtree is complete
+        Set<Long> linked = new HashSet<>();
+        for (Long id : folders.keySet()) {
+            linkSubfolders(id, folders, children, linked);
+        }
+        return folders;
+    }
+
+    private void linkSubfolders(Long id, Map<Long, FolderDTO> folders, Map<Long, List<Long>> children, Set<Long> linked) {
+        if (!linked.add(id)) {
+            return;
+        }
+        FolderDTO folder = folders.get(id);
+        for (Long childId : children.getOrDefault(id, List.of())) {
+            linkSubfolders(childId, folders, children, linked);
+            folder.getSubfolders().add(folders.get(childId));
+        }
+    }
+
+    /**
+     * Returns the user's whole folder forest with per-folder snippet counts.
+     * Uses two queries regardless of the depth or width of the tree; the
+     * hierarchy is linked up in memory in a single pass.
+     */
+    @Transactional(readOnly = true)
+    public List<FolderTreeDTO> getFolderTree(AuthenticatedUser user) {
+        List<Object[]> rows = folderRepository.findTreeRowsByUserId(user.id());
+
+        Map<Long, Long> snippetCounts = new HashMap<>();
+        for (Object[] row : folderRepository.countSnippetsPerFolder(user.id())) {
+            snippetCounts.put((Long) row[0], (Long) row[1]);
+        }
+
+        Map<Long, FolderTreeDTO> nodes = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            FolderTreeDTO node = new FolderTreeDTO();
+            node.setId((Long) row[0]);
+            node.setParentId((Long) row[1]);
+            node.setName((String) row[2]);
+            node.setPath((String) row[3]);
+            node.setSnippetCount(snippetCounts.getOrDefault(node.getId(), 0L));
+            nodes.put(node.getId(), node);
+        }
+
+        // Rows come ordered by path, so children are appended in path order
+        List<FolderTreeDTO> roots = new ArrayList<>();
+        for (Object[] row : rows) {
+            FolderTreeDTO node = nodes.get((Long) row[0]);
+            FolderTreeDTO parent = node.getParentId() != null ? nodes.get(node.getParentId()) : null;
+            if (parent != null) {
+                parent.getChildren().add(node);
+            } else {
+                roots.add(node);
+            }
+        }
+        return roots;
+    }
+
+    // Paths are built by joining names with '/', so a name must not contain one
+    private static void validateName(String name) {
+        if (name == null || name.isBlank() || name.contains("/")) {
+            throw new RuntimeException("Folder name must not be empty or contain '/'");
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package com.syntaxvault.service;
+
+import com.syntaxvault.config.CacheConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Eviction hooks for the public snippet and collection caches. Write paths
+ * call these with what they know about the entity's visibility before and
+ * after the change, so private edits leave the caches untouched.
+ */
+@Component
+public class PublicContentCache {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    public void snippetChanged(Long id, boolean wasPublic, boolean isPublic) {
+        if (!wasPublic && !isPublic) {
+            return;
+        }
+        if (id != null) {
+            cache(CacheConfig.PUBLIC_SNIPPETS).evict(id);
+        }
+        cache(CacheConfig.PUBLIC_SNIPPET_FEED).clear();
+    }
+
+    // A removed snippet also disappears from every collection that referenced it
+    public void snippetDeleted(Long id) {
+        cache(CacheConfig.PUBLIC_SNIPPETS).evict(id);
+        cache(CacheConfig.PUBLIC_SNIPPET_FEED).clear();
+        cache(CacheConfig.PUBLIC_COLLECTIONS).clear();
+        cache(CacheConfig.PUBLIC_COLLECTION_FEED).clear();
+    }
+
+    public void collectionChanged(Long id, boolean wasPublic, boolean isPublic) {
+        if (!wasPublic && !isPublic) {
+            return;
+        }
+        if (id != null) {
+            cache(CacheConfig.PUBLIC_COLLECTIONS).evict(id);
+        }
+        cache(CacheConfig.PUBLIC_COLLECTION_FEED).clear();
+    }
+
+    // Tag renames and deletions show up in every cached snippet that carries the tag
+    public void tagsChanged() {
+        cache(CacheConfig.PUBLIC_SNIPPETS).clear();
+        cache(CacheConfig.PUBLIC_SNIPPET_FEED).clear();
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+}
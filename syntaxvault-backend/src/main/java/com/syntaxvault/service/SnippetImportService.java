@@ -0,0 +1,183 @@
+package com.syntaxvault.service;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syntaxvault.dto.SnippetImportResult;
+import com.syntaxvault.dto.SnippetRequest;
+import com.syntaxvault.events.ChangeEvent;
+import com.syntaxvault.events.ChangeOutbox;
+import com.syntaxvault.model.Snippet;
+import com.syntaxvault.model.Tag;
+import com.syntaxvault.model.User;
+import com.syntaxvault.search.MinHash;
+import com.syntaxvault.security.AuthenticatedUser;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports snippets in bulk from a JSON array or newline-delimited JSON body.
+ *
+ * Items are read incrementally and written in chunks, each chunk in its own
+ * transaction: tag names are resolved for the whole chunk at once through the
+ * tag dictionary, and the snippet and Snippet_Tags inserts go out as JDBC
+ * batches. Invalid items are reported individually and never abort the rest
+ * of the import.
+ */
+@Service
+public class SnippetImportService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Autowired
+    private TagDictionaryService tagDictionary;
+
+    @Autowired
+    private ChangeOutbox changeOutbox;
+
+    @Autowired
+    private PublicContentCache publicContentCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public SnippetImportResult importSnippets(InputStream body, AuthenticatedUser user) throws IOException {
+        SnippetImportResult result = new SnippetImportResult();
+        // Insertion ordered, so ids and creation order follow the submission order
+        Map<Integer, SnippetRequest> chunk = new LinkedHashMap<>();
+        int index = 0;
+
+        // A top-level array is unwrapped; otherwise root-level values are read one after another
+        try (MappingIterator<SnippetRequest> items = objectMapper.readerFor(SnippetRequest.class).readValues(body)) {
+            while (items.hasNextValue()) {
+                int current = index++;
+                SnippetRequest request;
+                try {
+                    request = items.nextValue();
+                } catch (JsonParseException e) {
+                    result.getFailures().add(new SnippetImportResult.Failure(current, "Malformed JSON, import stopped: " + e.getOriginalMessage()));
+                    break;
+                } catch (JsonMappingException e) {
+                    result.getFailures().add(new SnippetImportResult.Failure(current, "Invalid item: " + e.getOriginalMessage()));
+                    continue;
+                }
+
+                String violation = validate(request);
+                if (violation != null) {
+                    result.getFailures().add(new SnippetImportResult.Failure(current, violation));
+                    continue;
+                }
+
+                chunk.put(current, request);
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, user, result);
+                    chunk = new LinkedHashMap<>();
+                }
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, user, result);
+        }
+        result.setReceived(index);
+        result.getFailures().sort(Comparator.comparingInt(SnippetImportResult.Failure::getIndex));
+        return result;
+    }
+
+    private void writeChunk(Map<Integer, SnippetRequest> chunk, AuthenticatedUser user, SnippetImportResult result) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            tx.executeWithoutResult(status -> insert(chunk.values(), user));
+            result.setImported(result.getImported() + chunk.size());
+        } catch (RuntimeException chunkFailure) {
+            // Fall back to one transaction per item to find out which ones the database rejects
+            for (Map.Entry<Integer, SnippetRequest> item : chunk.entrySet()) {
+                try {
+                    tx.executeWithoutResult(status -> insert(List.of(item.getValue()), user));
+                    result.setImported(result.getImported() + 1);
+                } catch (RuntimeException itemFailure) {
+                    result.getFailures().add(new SnippetImportResult.Failure(item.getKey(), itemFailure.getMessage()));
+                }
+            }
+        }
+    }
+
+    private void insert(Collection<SnippetRequest> requests, AuthenticatedUser user) {
+        Set<String> tagNames = requests.stream()
+            .filter(request -> request.getTags() != null)
+            .flatMap(request -> request.getTags().stream())
+            .collect(Collectors.toSet());
+        Map<String, Tag> tags = tagDictionary.resolve(tagNames);
+
+        User owner = entityManager.getReference(User.class, user.id());
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = new ArrayList<>(requests.size());
+        for (SnippetRequest request : requests) {
+            Snippet snippet = new Snippet();
+            snippet.setTitle(request.getTitle());
+            snippet.setDescription(request.getDescription());
+            snippet.setContent(request.getContent());
+            snippet.setContentMinhash(MinHash.toBytes(MinHash.signature(request.getContent())));
+            snippet.setLanguage(request.getLanguage());
+            snippet.setCreationDate(now);
+            snippet.setLastModifiedDate(now);
+            snippet.setUser(owner);
+            snippet.setIsPublic(request.isPublic());
+            Set<Tag> snippetTags = new HashSet<>();
+            if (request.getTags() != null) {
+                request.getTags().forEach(name -> snippetTags.add(tags.get(name)));
+            }
+            snippet.setTags(snippetTags);
+            entityManager.persist(snippet);
+            ids.add(snippet.getId());
+            publicContentCache.snippetChanged(snippet.getId(), false, snippet.getIsPublic());
+        }
+
+        // One outbox statement for the whole chunk
+        changeOutbox.recordAll(ChangeEvent.Aggregate.SNIPPET, ids, ChangeEvent.Type.CREATED);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private String validate(SnippetRequest request) {
+        if (request == null) {
+            return "Item must be a JSON object";
+        }
+        Set<ConstraintViolation<SnippetRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(v -> v.getPropertyPath() + " " + v.getMessage())
+            .sorted()
+            .collect(Collectors.joining(", "));
+    }
+}
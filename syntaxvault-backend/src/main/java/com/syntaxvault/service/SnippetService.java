@@ -1,26 +1,54 @@
 package com.syntaxvault.service;
 
+import com.syntaxvault.dto.FacetCount;
 import com.syntaxvault.dto.SnippetDTO;
+import com.syntaxvault.dto.SnippetDuplicateDTO;
+import com.syntaxvault.dto.SnippetFacets;
+import com.syntaxvault.dto.SnippetPage;
+import com.syntaxvault.dto.SnippetSummaryDTO;
+import com.syntaxvault.dto.SnippetSummaryPage;
 import com.syntaxvault.mapper.SnippetMapper;
 import com.syntaxvault.model.Snippet;
-import com.syntaxvault.model.Tag;
-import com.syntaxvault.model.User;
+import com.syntaxvault.model.SnippetContentListener;
 import com.syntaxvault.dto.SnippetRequest;
+import com.syntaxvault.dto.SnippetSearchResult;
 import com.syntaxvault.repository.SnippetRepository;
-import com.syntaxvault.repository.TagRepository;
+import com.syntaxvault.repository.SnippetSummaryView;
 import com.syntaxvault.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.util.Set;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.time.LocalDateTime;
 import java.util.stream.Collectors;
-import org.springframework.security.core.context.SecurityContextHolder;
 import com.syntaxvault.model.Folder;
 import com.syntaxvault.repository.FolderRepository;
+import com.syntaxvault.search.SnippetFacetIndex;
+import com.syntaxvault.search.CodeTokenizer;
+import com.syntaxvault.search.MinHash;
+import com.syntaxvault.search.SnippetDuplicateIndex;
+import com.syntaxvault.search.SnippetSearchIndex;
+import com.syntaxvault.security.AuthenticatedUser;
+import com.syntaxvault.util.SnippetCursor;
+import com.syntaxvault.config.CacheConfig;
+import com.syntaxvault.events.ChangeEvent;
+import com.syntaxvault.events.ChangeOutbox;
+import org.springframework.cache.annotation.Cacheable;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.roaringbitmap.RoaringBitmap;
 
 @Service
 public class SnippetService {
@@ -28,9 +56,6 @@ public class SnippetService {
     @Autowired
     private SnippetRepository snippetRepository;
 
-    @Autowired
-    private TagRepository tagRepository;
-    
     @Autowired
     private UserRepository userRepository;
 
@@ -40,142 +65,476 @@ public class SnippetService {
     @Autowired
     private FolderRepository folderRepository;
 
+    @Autowired
+    private SnippetSearchIndex searchIndex;
+
+    @Autowired
+    private TagDictionaryService tagDictionary;
+
+    @Autowired
+    private PublicContentCache publicContentCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ChangeOutbox changeOutbox;
+
+    @Autowired
+    private SnippetFacetIndex facetIndex;
+
+    @Autowired
+    private SnippetDuplicateIndex duplicateIndex;
+
+    @Autowired
+    private SnippetContentListener snippetContentListener;
+
+    // Upper bound on ids per hydration query, well below the JDBC bind parameter limit
+    private static final int HYDRATE_BATCH_SIZE = 1000;
+
+    // Where a search found its candidates, published as the source tag of the search metrics
+    private enum SearchSource {
+        SCAN,
+        IDENT,
+        INDEX,
+        FULLTEXT;
+
+        String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
     @Transactional
-    public SnippetDTO createSnippet(SnippetRequest snippetRequest, User user) {
+    public SnippetDTO createSnippet(SnippetRequest snippetRequest, AuthenticatedUser user) {
         Snippet snippet = new Snippet();
         snippet.setTitle(snippetRequest.getTitle());
         snippet.setDescription(snippetRequest.getDescription());
         snippet.setContent(snippetRequest.getContent());
+        snippet.setContentMinhash(MinHash.toBytes(MinHash.signature(snippetRequest.getContent())));
         snippet.setLanguage(snippetRequest.getLanguage());
         snippet.setCreationDate(LocalDateTime.now());
         snippet.setLastModifiedDate(LocalDateTime.now());
-        snippet.setUser(user);
+        // A reference is enough for the foreign key; the caller is already authenticated
+        snippet.setUser(userRepository.getReferenceById(user.id()));
         snippet.setIsPublic(snippetRequest.isPublic()); // Add this line to set isPublic
 
         // Handle tags
-        Set<Tag> tags = new HashSet<>();
-        for (String tagName : snippetRequest.getTags()) {
-            Tag tag = tagRepository.findByName(tagName)
-                .orElseGet(() -> tagRepository.save(new Tag(tagName)));
-            tags.add(tag);
-        }
-        snippet.setTags(tags);
+        snippet.setTags(new HashSet<>(tagDictionary.resolve(snippetRequest.getTags()).values()));
         
         Snippet savedSnippet = snippetRepository.save(snippet);
-        return snippetMapper.toDTO(savedSnippet);
+        changeOutbox.record(ChangeEvent.Aggregate.SNIPPET, savedSnippet.getId(), ChangeEvent.Type.CREATED);
+        publicContentCache.snippetChanged(savedSnippet.getId(), false, savedSnippet.getIsPublic());
+        return snippetMapper.toDTO(savedSnippet, user.username());
     }
 
+    @Transactional(readOnly = true)
     public Optional<SnippetDTO> getSnippetByIdDTO(Long id){
         Optional<Snippet> snippetOpt = snippetRepository.findById(id);
         return snippetOpt.map(snippetMapper::toDTO);
     }
 
     @Transactional(readOnly = true)
-    public List<SnippetDTO> getAllSnippetsDTO() {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Snippet> snippets = snippetRepository.findByUserIdWithUserAndTags(currentUser.getId());
+    public List<SnippetDTO> getAllSnippetsDTO(AuthenticatedUser user) {
+        List<Snippet> snippets = snippetRepository.findByUserIdWithUserAndTags(user.id());
         return snippets.stream()
             .map(snippetMapper::toDTO)
             .collect(Collectors.toList());
     }
 
     @Transactional
-    public SnippetDTO updateSnippet(Long id, SnippetRequest snippetRequest, User user) {
+    public SnippetDTO updateSnippet(Long id, SnippetRequest snippetRequest, AuthenticatedUser user) {
         Snippet snippet = snippetRepository.findById(id)
                             .orElseThrow(() -> new RuntimeException("Snippet not found"));
 
-        // Fetch the user with snippets collection initialized
-        User fullUser = userRepository.findByIdWithSnippets(user.getId())
-                            .orElseThrow(() -> new RuntimeException("User not found"));
-
         // Check if the user is the owner of the snippet or an admin
-        if (!snippet.getUser().equals(fullUser) && !fullUser.getRoles().contains("ROLE_ADMIN")) {
+        if (!snippet.getUser().getId().equals(user.id()) && !user.isAdmin()) {
             throw new RuntimeException("You don't have permission to update this snippet");
         }
 
+        boolean wasPublic = snippet.getIsPublic();
         snippet.setTitle(snippetRequest.getTitle());
         snippet.setDescription(snippetRequest.getDescription());
-        snippet.setContent(snippetRequest.getContent());
+        // Unchanged content is not compressed, tokenized or written again
+        if (!Objects.equals(snippet.getContent(), snippetRequest.getContent())) {
+            snippet.setContent(snippetRequest.getContent());
+            snippetContentListener.prepareContent(snippet);
+            snippet.setContentMinhash(MinHash.toBytes(MinHash.signature(snippetRequest.getContent())));
+        }
         snippet.setLanguage(snippetRequest.getLanguage());
         snippet.setLastModifiedDate(LocalDateTime.now());
         snippet.setIsPublic(snippetRequest.isPublic()); // Add this line to update the isPublic flag
         System.out.println("Received isPublic value: " + snippetRequest.isPublic());
 
         // Handle tags
-        Set<Tag> tags = new HashSet<>();
-        for (String tagName : snippetRequest.getTags()) {
-            Tag tag = tagRepository.findByName(tagName)
-                .orElseGet(() -> tagRepository.save(new Tag(tagName)));
-            tags.add(tag);
-        }
-        snippet.setTags(tags);
+        snippet.setTags(new HashSet<>(tagDictionary.resolve(snippetRequest.getTags()).values()));
         
         Snippet updatedSnippet = snippetRepository.save(snippet);
-        return snippetMapper.toDTO(updatedSnippet);
+        changeOutbox.record(ChangeEvent.Aggregate.SNIPPET, id, ChangeEvent.Type.UPDATED);
+        publicContentCache.snippetChanged(id, wasPublic, updatedSnippet.getIsPublic());
+        return toDTOFor(updatedSnippet, user);
     }
 
     @Transactional
     public void deleteSnippet(Long id){
         snippetRepository.deleteById(id);
+        changeOutbox.record(ChangeEvent.Aggregate.SNIPPET, id, ChangeEvent.Type.DELETED);
+        publicContentCache.snippetDeleted(id);
     }
 
+    /**
+     * Snippets visible to the user whose content has an estimated Jaccard
+     * similarity of at least {@code threshold} with the given snippet's, most
+     * similar first. Empty when the snippet does not exist or is not visible.
+     */
     @Transactional(readOnly = true)
-    public List<SnippetDTO> searchSnippets(String keyword, String language, List<String> tags) {
-        String username = SecurityContextHolder.getContext().getAuthentication().getName();
-        User currentUser = userRepository.findByUsername(username)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+    public Optional<List<SnippetDuplicateDTO>> findDuplicates(Long id, double threshold, int limit, AuthenticatedUser user) {
+        Optional<Snippet> snippetOpt = snippetRepository.findById(id)
+            .filter(snippet -> snippet.getIsPublic() || snippet.getUser().getId().equals(user.id()));
+        if (snippetOpt.isEmpty()) {
+            return Optional.empty();
+        }
+        int[] signature = MinHash.fromBytes(snippetOpt.get().getContentMinhash());
+        if (signature == null) {
+            return Optional.of(List.of());
+        }
 
-        List<Snippet> allSnippets = snippetRepository.findAllWithUserAndTags();
-        
-        return allSnippets.stream()
-            .filter(snippet -> snippet.getUser().equals(currentUser) || snippet.getIsPublic())
-            .filter(snippet -> (keyword == null || keyword.isEmpty() ||
-                                snippet.getTitle().toLowerCase().contains(keyword.toLowerCase()) ||
-                                snippet.getContent().toLowerCase().contains(keyword.toLowerCase())))
+        List<SnippetDuplicateIndex.Match> matches = duplicateIndex.isReady()
+            ? duplicateIndex.findSimilar(signature, id, threshold, user.id(), limit)
+            : duplicateIndex.scanSimilar(signature, id, threshold, user.id(), limit);
+        if (matches.isEmpty()) {
+            return Optional.of(List.of());
+        }
+        Map<Long, Snippet> byId = snippetRepository.findByIdInWithUserAndTags(
+                matches.stream().map(SnippetDuplicateIndex.Match::id).collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.toMap(Snippet::getId, Function.identity()));
+        List<SnippetDuplicateDTO> duplicates = new ArrayList<>(matches.size());
+        for (SnippetDuplicateIndex.Match match : matches) {
+            // The index may briefly list a snippet deleted since
+            Snippet duplicate = byId.get(match.id());
+            if (duplicate != null) {
+                duplicates.add(new SnippetDuplicateDTO(duplicate.getId(), duplicate.getTitle(), duplicate.getLanguage(),
+                    duplicate.getUser().getUsername(), duplicate.getIsPublic(), match.similarity()));
+            }
+        }
+        return Optional.of(duplicates);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SnippetDTO> searchSnippets(String keyword, String language, List<String> tags, AuthenticatedUser currentUser) {
+        return findSearchMatches(keyword, language, tags, currentUser).stream()
+            .map(this::toSearchDTO)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Same matches as searchSnippets, plus language and tag counts over all of
+     * them for the {@code tagFacetLimit} most frequent tags.
+     */
+    @Transactional(readOnly = true)
+    public SnippetSearchResult searchSnippetsWithFacets(String keyword, String language, List<String> tags,
+                                                        int tagFacetLimit, AuthenticatedUser currentUser) {
+        List<Snippet> matches = findSearchMatches(keyword, language, tags, currentUser);
+        List<SnippetDTO> items = matches.stream()
+            .map(this::toSearchDTO)
+            .collect(Collectors.toList());
+        return new SnippetSearchResult(items, countFacets(matches, tagFacetLimit));
+    }
+
+    private SnippetFacets countFacets(List<Snippet> matches, int tagFacetLimit) {
+        SnippetFacetIndex.Facets facets;
+        if (facetIndex.isReady() && matches.stream().allMatch(snippet -> SnippetFacetIndex.fits(snippet.getId()))) {
+            RoaringBitmap ids = new RoaringBitmap();
+            for (Snippet snippet : matches) {
+                ids.add(snippet.getId().intValue());
+            }
+            facets = facetIndex.facets(ids, tagFacetLimit);
+        } else {
+            // Until the bitmaps are loaded, or for ids they cannot hold, count the hydrated matches directly
+            facets = SnippetFacetIndex.count(matches, tagFacetLimit);
+        }
+        return new SnippetFacets(toFacetCounts(facets.languages()), toFacetCounts(facets.tags()));
+    }
+
+    private static List<FacetCount> toFacetCounts(List<SnippetFacetIndex.Bucket> buckets) {
+        return buckets.stream()
+            .map(bucket -> new FacetCount(bucket.value(), bucket.count()))
+            .collect(Collectors.toList());
+    }
+
+    private SnippetDTO toSearchDTO(Snippet snippet) {
+        SnippetDTO dto = snippetMapper.toDTO(snippet);
+        dto.setUsername(snippet.getUser().getUsername());
+        return dto;
+    }
+
+    private List<Snippet> findSearchMatches(String keyword, String language, List<String> tags, AuthenticatedUser currentUser) {
+        List<Snippet> allSnippets;
+        // "ident:parseJson" matches identifiers rather than substrings
+        List<String> identifierTerms = CodeTokenizer.parseIdentifierQuery(keyword);
+        boolean indexed = searchIndex.isReady();
+        SearchSource source = !indexed ? SearchSource.SCAN
+            : identifierTerms != null ? SearchSource.IDENT : SearchSource.INDEX;
+        if (indexed) {
+            // Only hydrate the snippets the index says are visible and may match
+            List<Long> candidateIds = identifierTerms != null
+                ? searchIndex.findIdentifierCandidates(identifierTerms, currentUser.id())
+                : searchIndex.findCandidates(keyword, currentUser.id());
+            allSnippets = new ArrayList<>(candidateIds.size());
+            for (int i = 0; i < candidateIds.size(); i += HYDRATE_BATCH_SIZE) {
+                List<Long> batch = candidateIds.subList(i, Math.min(i + HYDRATE_BATCH_SIZE, candidateIds.size()));
+                allSnippets.addAll(snippetRepository.findByIdInWithUserAndTags(batch));
+            }
+        } else {
+            allSnippets = snippetRepository.findAllWithUserAndTags();
+        }
+
+        List<Snippet> results = allSnippets.stream()
+            .filter(snippet -> snippet.getUser().getId().equals(currentUser.id()) || snippet.getIsPublic())
+            // Identifier candidates from the index are exact matches already; only a scan re-tokenizes
+            .filter(snippet -> identifierTerms != null
+                ? indexed || matchesIdentifiers(snippet, identifierTerms)
+                : (keyword == null || keyword.isEmpty() ||
+                   snippet.getTitle().toLowerCase().contains(keyword.toLowerCase()) ||
+                   snippet.getContent().toLowerCase().contains(keyword.toLowerCase())))
             .filter(snippet -> (language == null || language.isEmpty() ||
                                 snippet.getLanguage().equalsIgnoreCase(language)))
             .filter(snippet -> (tags == null || tags.isEmpty() ||
                                 snippet.getTags().stream().anyMatch(tag -> tags.contains(tag.getName()))))
-            .map(snippet -> {
-                SnippetDTO dto = snippetMapper.toDTO(snippet);
-                dto.setUsername(snippet.getUser().getUsername());
-                return dto;
-            })
             .collect(Collectors.toList());
+        recordSearch(source, allSnippets.size(), results.size());
+        return results;
+    }
+
+    private static boolean matchesIdentifiers(Snippet snippet, List<String> terms) {
+        if (terms.isEmpty()) {
+            return false;
+        }
+        Set<String> snippetTerms = CodeTokenizer.terms(snippet.getTitle(), snippet.getLanguage());
+        snippetTerms.addAll(CodeTokenizer.terms(snippet.getContent(), snippet.getLanguage()));
+        return snippetTerms.containsAll(terms);
+    }
+
+    // Rows hydrated versus rows returned; a wide gap means the filters run too late
+    private void recordSearch(SearchSource source, int candidates, int results) {
+        searchSummary("snippets.search.candidates", "Snippets loaded to answer a search", source).record(candidates);
+        searchSummary("snippets.search.results", "Snippets returned by a search", source).record(results);
+    }
+
+    private DistributionSummary searchSummary(String name, String description, SearchSource source) {
+        return DistributionSummary.builder(name)
+            .description(description)
+            .tag("source", source.tag())
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .register(meterRegistry);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<SnippetDTO> rankedSearch(String query, String language, Pageable pageable, AuthenticatedUser currentUser) {
+        String languageFilter = (language == null || language.isEmpty()) ? null : language;
+        Page<Long> idPage = snippetRepository.findIdsByFullTextQuery(query, languageFilter, currentUser.id(), pageable);
+        recordSearch(SearchSource.FULLTEXT, (int) Math.min(idPage.getTotalElements(), Integer.MAX_VALUE), idPage.getNumberOfElements());
+        if (idPage.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, idPage.getTotalElements());
+        }
+
+        List<SnippetDTO> dtos = hydrateInOrder(idPage.getContent()).stream()
+            .map(snippetMapper::toDTO)
+            .collect(Collectors.toList());
+        return new PageImpl<>(dtos, pageable, idPage.getTotalElements());
+    }
+
+    @Transactional(readOnly = true)
+    public SnippetPage getAllSnippetsPage(AuthenticatedUser user, String cursor, int limit) {
+        return getSnippetsByUserPage(user, cursor, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public SnippetPage getSnippetsByUserPage(AuthenticatedUser user, String cursor, int limit) {
+        // One extra row tells us whether another page follows
+        Pageable window = PageRequest.of(0, limit + 1);
+        List<Long> ids;
+        if (cursor == null) {
+            ids = snippetRepository.findIdsByUserId(user.id(), window);
+        } else {
+            SnippetCursor position = SnippetCursor.decode(cursor);
+            ids = snippetRepository.findIdsByUserIdAfter(user.id(), position.lastModifiedDate(), position.id(), window);
+        }
+        return toSnippetPage(ids, limit);
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_SNIPPET_FEED, key = "#limit + ':' + #cursor")
+    public SnippetPage getPublicSnippetsPage(String cursor, int limit) {
+        Pageable window = PageRequest.of(0, limit + 1);
+        List<Long> ids;
+        if (cursor == null) {
+            ids = snippetRepository.findPublicIds(window);
+        } else {
+            SnippetCursor position = SnippetCursor.decode(cursor);
+            ids = snippetRepository.findPublicIdsAfter(position.lastModifiedDate(), position.id(), window);
+        }
+        return toSnippetPage(ids, limit);
     }
 
     @Transactional(readOnly = true)
-    public List<SnippetDTO> getSnippetsByUserDTO(User user) {
-        List<Snippet> snippets = snippetRepository.findByUserIdWithUserAndTags(user.getId());
+    public SnippetPage getSnippetsByFolderPage(Long folderId, AuthenticatedUser user, String cursor, int limit) {
+        Folder folder = folderRepository.findById(folderId)
+            .orElseThrow(() -> new RuntimeException("Folder not found"));
+
+        if (!folder.getUser().getId().equals(user.id())) {
+            throw new RuntimeException("You don't have permission to access this folder");
+        }
+
+        Pageable window = PageRequest.of(0, limit + 1);
+        List<Long> ids;
+        if (cursor == null) {
+            ids = snippetRepository.findIdsByFolderId(folderId, window);
+        } else {
+            SnippetCursor position = SnippetCursor.decode(cursor);
+            ids = snippetRepository.findIdsByFolderIdAfter(folderId, position.lastModifiedDate(), position.id(), window);
+        }
+        return toSnippetPage(ids, limit);
+    }
+
+    /**
+     * Pages through every snippet in the folder and all of its subfolders, newest first,
+     * optionally restricted to a language and to snippets carrying any of the given tags.
+     */
+    @Transactional(readOnly = true)
+    public SnippetPage getSnippetsUnderFolderPage(Long folderId, AuthenticatedUser user, String language,
+                                                  List<String> tags, String cursor, int limit) {
+        Folder folder = folderRepository.findById(folderId)
+            .orElseThrow(() -> new RuntimeException("Folder not found"));
+
+        if (!folder.getUser().getId().equals(user.id())) {
+            throw new RuntimeException("You don't have permission to access this folder");
+        }
+
+        String descendants = folder.descendantPathPattern();
+        boolean byLanguage = language != null && !language.isEmpty();
+        String[] tagNames = (tags == null || tags.isEmpty()) ? null : tags.toArray(new String[0]);
+        List<Long> ids;
+        if (cursor == null) {
+            ids = byLanguage
+                ? snippetRepository.findIdsInFolderSubtreeByLanguage(user.id(), folderId, descendants, language, tagNames, limit + 1)
+                : snippetRepository.findIdsInFolderSubtree(user.id(), folderId, descendants, tagNames, limit + 1);
+        } else {
+            SnippetCursor position = SnippetCursor.decode(cursor);
+            ids = byLanguage
+                ? snippetRepository.findIdsInFolderSubtreeByLanguageAfter(user.id(), folderId, descendants, language, tagNames,
+                    position.lastModifiedDate(), position.id(), limit + 1)
+                : snippetRepository.findIdsInFolderSubtreeAfter(user.id(), folderId, descendants, tagNames,
+                    position.lastModifiedDate(), position.id(), limit + 1);
+        }
+        return toSnippetPage(ids, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public SnippetSummaryPage getSnippetSummariesPage(AuthenticatedUser user, String cursor, int limit) {
+        List<SnippetSummaryView> rows;
+        if (cursor == null) {
+            rows = snippetRepository.findSummariesByUserId(user.id(), limit + 1);
+        } else {
+            SnippetCursor position = SnippetCursor.decode(cursor);
+            rows = snippetRepository.findSummariesByUserIdAfter(user.id(), position.lastModifiedDate(), position.id(), limit + 1);
+        }
+        return toSummaryPage(rows, limit);
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_SNIPPET_FEED, key = "'summary:' + #limit + ':' + #cursor")
+    public SnippetSummaryPage getPublicSnippetSummariesPage(String cursor, int limit) {
+        List<SnippetSummaryView> rows;
+        if (cursor == null) {
+            rows = snippetRepository.findPublicSummaries(limit + 1);
+        } else {
+            SnippetCursor position = SnippetCursor.decode(cursor);
+            rows = snippetRepository.findPublicSummariesAfter(position.lastModifiedDate(), position.id(), limit + 1);
+        }
+        return toSummaryPage(rows, limit);
+    }
+
+    private SnippetSummaryPage toSummaryPage(List<SnippetSummaryView> rows, int limit) {
+        boolean hasMore = rows.size() > limit;
+        List<SnippetSummaryView> page = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (hasMore && !page.isEmpty()) {
+            SnippetSummaryView last = page.get(page.size() - 1);
+            nextCursor = new SnippetCursor(last.getLastModifiedDate(), last.getId()).encode();
+        }
+        List<SnippetSummaryDTO> items = page.stream()
+            .map(snippetMapper::toSummaryDTO)
+            .collect(Collectors.toList());
+        return new SnippetSummaryPage(items, nextCursor);
+    }
+
+    private SnippetPage toSnippetPage(List<Long> ids, int limit) {
+        boolean hasMore = ids.size() > limit;
+        List<Snippet> snippets = hydrateInOrder(hasMore ? ids.subList(0, limit) : ids);
+        String nextCursor = null;
+        if (hasMore && !snippets.isEmpty()) {
+            Snippet last = snippets.get(snippets.size() - 1);
+            nextCursor = new SnippetCursor(last.getLastModifiedDate(), last.getId()).encode();
+        }
+        List<SnippetDTO> items = snippets.stream()
+            .map(snippetMapper::toDTO)
+            .collect(Collectors.toList());
+        return new SnippetPage(items, nextCursor);
+    }
+
+    // Maps without loading the owner when it is the caller
+    private SnippetDTO toDTOFor(Snippet snippet, AuthenticatedUser user) {
+        if (snippet.getUser().getId().equals(user.id())) {
+            return snippetMapper.toDTO(snippet, user.username());
+        }
+        return snippetMapper.toDTO(snippet);
+    }
+
+    // Loads the given snippets with user and tags in one query, preserving the order of the ids
+    private List<Snippet> hydrateInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Snippet> byId = snippetRepository.findByIdInWithUserAndTags(ids).stream()
+            .collect(Collectors.toMap(Snippet::getId, Function.identity()));
+        return ids.stream()
+            .map(byId::get)
+            .filter(snippet -> snippet != null)
+            .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<SnippetDTO> getSnippetsByUserDTO(AuthenticatedUser user) {
+        List<Snippet> snippets = snippetRepository.findByUserIdWithUserAndTags(user.id());
         return snippets.stream()
                        .map(snippetMapper::toDTO)
                        .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_SNIPPET_FEED, key = "'all'")
     public List<SnippetDTO> getPublicSnippets() {
-        List<Snippet> publicSnippets = snippetRepository.findByIsPublicTrue();
+        List<Snippet> publicSnippets = snippetRepository.findPublicWithUserAndTags();
         return publicSnippets.stream()
                            .map(snippetMapper::toDTO)
                            .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PUBLIC_SNIPPETS, key = "#id", unless = "#result == null")
     public Optional<SnippetDTO> getPublicSnippetById(Long id) {
         return snippetRepository.findByIdAndIsPublicTrue(id)
                               .map(snippetMapper::toDTO);
     }
 
     @Transactional
-    public SnippetDTO moveSnippet(Long snippetId, Long folderId, User user) {
+    public SnippetDTO moveSnippet(Long snippetId, Long folderId, AuthenticatedUser user) {
         Snippet snippet = snippetRepository.findById(snippetId)
             .orElseThrow(() -> new RuntimeException("Snippet not found"));
 
         // Check if user owns the snippet by comparing IDs
-        if (!snippet.getUser().getId().equals(user.getId())) {
+        if (!snippet.getUser().getId().equals(user.id())) {
             throw new RuntimeException("You don't have permission to move this snippet");
         }
 
@@ -187,7 +546,7 @@ public class SnippetService {
                 .orElseThrow(() -> new RuntimeException("Folder not found"));
 
             // Check if user owns the folder by comparing IDs
-            if (!folder.getUser().getId().equals(user.getId())) {
+            if (!folder.getUser().getId().equals(user.id())) {
                 throw new RuntimeException("You don't have permission to move to this folder");
             }
 
@@ -196,26 +555,24 @@ public class SnippetService {
 
         snippet.setLastModifiedDate(LocalDateTime.now());
         Snippet savedSnippet = snippetRepository.save(snippet);
-        return snippetMapper.toDTO(savedSnippet);
+        changeOutbox.record(ChangeEvent.Aggregate.SNIPPET, snippetId, ChangeEvent.Type.UPDATED);
+        publicContentCache.snippetChanged(snippetId, savedSnippet.getIsPublic(), savedSnippet.getIsPublic());
+        return snippetMapper.toDTO(savedSnippet, user.username());
     }
 
     @Transactional(readOnly = true)
-    public List<SnippetDTO> getSnippetsByFolder(Long folderId, User user) {
+    public List<SnippetDTO> getSnippetsByFolder(Long folderId, AuthenticatedUser user) {
         Folder folder = folderRepository.findById(folderId)
             .orElseThrow(() -> new RuntimeException("Folder not found"));
 
         // Check if user owns the folder by comparing IDs
-        if (!folder.getUser().getId().equals(user.getId())) {
+        if (!folder.getUser().getId().equals(user.id())) {
             throw new RuntimeException("You don't have permission to access this folder");
         }
 
-        // If the folder is empty, return an empty list instead of throwing an error
-        if (folder.getSnippets() == null || folder.getSnippets().isEmpty()) {
-            return List.of();
-        }
-
-        return folder.getSnippets().stream()
-            .map(snippetMapper::toDTO)
+        // Folders only hold their owner's snippets
+        return snippetRepository.findByFolderIdWithTags(folderId).stream()
+            .map(snippet -> snippetMapper.toDTO(snippet, user.username()))
             .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,134 @@
+package com.syntaxvault.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.syntaxvault.model.Tag;
+import com.syntaxvault.search.TagPrefixIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps tag names to tag ids through a bounded in-memory dictionary.
+ *
+ * Names missing from the dictionary are created or looked up with a single
+ * INSERT ... ON CONFLICT DO NOTHING RETURNING statement, so concurrent writers
+ * introducing the same tag no longer collide on the unique constraint.
+ * Tags are handed out as detached instances carrying only id and name, which
+ * is all a Snippet_Tags row needs.
+ */
+@Service
+public class TagDictionaryService {
+
+    private static final int MAX_CACHED_TAGS = 50_000;
+
+    // Inserts the names that do not exist yet and returns every requested name with its id.
+    // Rows created by a concurrent transaction after this statement started are not visible
+    // to it; those names are picked up by a follow-up SELECT.
+    private static final String UPSERT_SQL =
+        "WITH input(name) AS (SELECT DISTINCT unnest(?::varchar[])), " +
+        "inserted AS (INSERT INTO Tags (name) SELECT name FROM input ON CONFLICT (name) DO NOTHING RETURNING id, name) " +
+        "SELECT id, name, true AS created FROM inserted " +
+        "UNION ALL SELECT t.id, t.name, false AS created FROM Tags t JOIN input i ON t.name = i.name";
+
+    private static final String SELECT_SQL = "SELECT id, name FROM Tags WHERE name = ANY(?::varchar[])";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TagPrefixIndex tagIndex;
+
+    private final Cache<String, Long> idsByName = Caffeine.newBuilder()
+        .maximumSize(MAX_CACHED_TAGS)
+        .build();
+
+    /**
+     * Returns a tag for every given name, creating the missing ones. Runs in the
+     * caller's transaction; newly created ids are only cached once it commits.
+     */
+    public Map<String, Tag> resolve(Collection<String> names) {
+        Map<String, Tag> tags = new HashMap<>();
+        if (names == null || names.isEmpty()) {
+            return tags;
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (String name : new LinkedHashSet<>(names)) {
+            Long id = idsByName.getIfPresent(name);
+            if (id != null) {
+                tags.put(name, new Tag(id, name, null));
+            } else {
+                missing.add(name);
+            }
+        }
+        if (missing.isEmpty()) {
+            return tags;
+        }
+
+        Map<String, Long> created = new HashMap<>();
+        jdbcTemplate.query(UPSERT_SQL, ps -> ps.setArray(1, toArray(ps.getConnection(), missing)), rs -> {
+            String name = rs.getString("name");
+            long id = rs.getLong("id");
+            tags.put(name, new Tag(id, name, null));
+            if (rs.getBoolean("created")) {
+                created.put(name, id);
+            } else {
+                idsByName.put(name, id);
+            }
+        });
+
+        List<String> unresolved = missing.stream().filter(name -> !tags.containsKey(name)).toList();
+        if (!unresolved.isEmpty()) {
+            jdbcTemplate.query(SELECT_SQL, ps -> ps.setArray(1, toArray(ps.getConnection(), unresolved)), rs -> {
+                String name = rs.getString("name");
+                long id = rs.getLong("id");
+                tags.put(name, new Tag(id, name, null));
+                idsByName.put(name, id);
+            });
+        }
+
+        cacheAfterCommit(created);
+        return tags;
+    }
+
+    public void evict(String name) {
+        idsByName.invalidate(name);
+    }
+
+    private void cacheAfterCommit(Map<String, Long> created) {
+        if (created.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(created);
+                }
+            });
+        } else {
+            publish(created);
+        }
+    }
+
+    private void publish(Map<String, Long> created) {
+        idsByName.putAll(created);
+        created.forEach((name, id) -> tagIndex.put(id, name));
+    }
+
+    private static Array toArray(Connection connection, List<String> names) throws SQLException {
+        return connection.createArrayOf("varchar", names.toArray());
+    }
+}
@@ -1,12 +1,16 @@
 package com.syntaxvault.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.syntaxvault.model.User;
+import com.syntaxvault.security.AuthenticatedUser;
 import com.syntaxvault.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import java.time.Duration;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -17,6 +21,12 @@ public class UserService implements UserDetailsService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
 
+    // Short-lived, so role changes and removed accounts take effect within minutes
+    private final Cache<String, AuthenticatedUser> principals = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .expireAfterWrite(Duration.ofMinutes(5))
+        .build();
+
     @Autowired
     public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
         this.userRepository = userRepository;
@@ -50,5 +60,21 @@ public class UserService implements UserDetailsService {
         );
     }
 
+    /**
+     * Looks up the id and roles of a user for authentication, serving repeated
+     * lookups from a short-lived cache. Only needed for tokens that do not carry
+     * these as claims.
+     */
+    public Optional<AuthenticatedUser> findAuthenticatedUser(String username) {
+        AuthenticatedUser cached = principals.getIfPresent(username);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<AuthenticatedUser> user = userRepository.findByUsername(username)
+            .map(found -> new AuthenticatedUser(found.getId(), found.getUsername(), found.getRoles()));
+        user.ifPresent(found -> principals.put(username, found));
+        return user;
+    }
+
     // Additional user-related business logic
 }
\ No newline at end of file
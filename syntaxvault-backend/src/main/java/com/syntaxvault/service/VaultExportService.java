@@ -0,0 +1,124 @@
+package com.syntaxvault.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syntaxvault.model.Collection;
+import com.syntaxvault.model.Folder;
+import com.syntaxvault.model.Snippet;
+import com.syntaxvault.model.Tag;
+import com.syntaxvault.repository.CollectionRepository;
+import com.syntaxvault.repository.FolderRepository;
+import com.syntaxvault.repository.SnippetRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes a user's whole vault as newline-delimited JSON. Every line is one
+ * object with a "type" of folder, collection, snippet or membership.
+ *
+ * All rows are read through forward-only cursors and each entity is detached
+ * once written, so memory use does not grow with the size of the vault.
+ */
+@Service
+public class VaultExportService {
+
+    @Autowired
+    private SnippetRepository snippetRepository;
+
+    @Autowired
+    private FolderRepository folderRepository;
+
+    @Autowired
+    private CollectionRepository collectionRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public void exportVault(Long userId, OutputStream out) throws IOException {
+        try (Stream<Folder> folders = folderRepository.streamByUserId(userId)) {
+            Iterator<Folder> it = folders.iterator();
+            while (it.hasNext()) {
+                Folder folder = it.next();
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("type", "folder");
+                line.put("id", folder.getId());
+                line.put("name", folder.getName());
+                line.put("path", folder.getPath());
+                writeLine(out, line);
+                entityManager.detach(folder);
+            }
+        }
+
+        try (Stream<Collection> collections = collectionRepository.streamByUserId(userId)) {
+            Iterator<Collection> it = collections.iterator();
+            while (it.hasNext()) {
+                Collection collection = it.next();
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("type", "collection");
+                line.put("id", collection.getId());
+                line.put("name", collection.getName());
+                line.put("isPublic", collection.getIsPublic());
+                writeLine(out, line);
+                entityManager.detach(collection);
+            }
+        }
+
+        try (Stream<Snippet> snippets = snippetRepository.streamByUserIdWithFolderAndTags(userId)) {
+            Iterator<Snippet> it = snippets.iterator();
+            while (it.hasNext()) {
+                Snippet snippet = it.next();
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("type", "snippet");
+                line.put("id", snippet.getId());
+                line.put("title", snippet.getTitle());
+                line.put("description", snippet.getDescription());
+                line.put("content", snippet.getContent());
+                line.put("language", snippet.getLanguage());
+                line.put("creationDate", snippet.getCreationDate());
+                line.put("lastModifiedDate", snippet.getLastModifiedDate());
+                line.put("isPublic", snippet.getIsPublic());
+                line.put("folderPath", snippet.getFolder() != null ? snippet.getFolder().getPath() : null);
+                List<String> tagNames = snippet.getTags() == null ? List.of()
+                    : snippet.getTags().stream().map(Tag::getName).sorted().toList();
+                line.put("tags", tagNames);
+                writeLine(out, line);
+                entityManager.detach(snippet);
+            }
+        }
+
+        try (Stream<Object[]> memberships = collectionRepository.streamMembershipsByUserId(userId)) {
+            memberships.forEach(row -> {
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("type", "membership");
+                line.put("collectionId", row[0]);
+                line.put("snippetId", row[1]);
+                try {
+                    writeLine(out, line);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        out.flush();
+    }
+
+    private void writeLine(OutputStream out, Map<String, Object> line) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(line));
+        out.write('\n');
+    }
+}
@@ -9,13 +9,7 @@ import java.util.Set;
 
 public class SnippetSpecification {
 
-    public static Specification<Snippet> titleOrContentContains(String keyword) {
-        return (root, query, builder) -> 
-            builder.or(
-                builder.like(builder.lower(root.get("title")), "%" + keyword.toLowerCase() + "%"),
-                builder.like(builder.lower(root.get("content")), "%" + keyword.toLowerCase() + "%")
-            );
-    }
+    // Keyword matching is served by SnippetRepository.findIdsByFullTextQuery (tsvector + GIN)
 
     public static Specification<Snippet> hasLanguage(String language) {
         return (root, query, builder) -> 
@@ -0,0 +1,37 @@
+package com.syntaxvault.util;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET responses for a precomputed ETag. When the request's
+ * If-None-Match matches, the body supplier is never called and a 304 is sent.
+ * Responses are marked no-cache so clients store them but revalidate every
+ * time, which replaces the no-store default of Spring Security.
+ */
+public final class ConditionalGet {
+
+    public static final CacheControl REVALIDATE_PRIVATE = CacheControl.noCache().cachePrivate();
+    public static final CacheControl REVALIDATE_PUBLIC = CacheControl.noCache();
+
+    private ConditionalGet() {
+    }
+
+    public static <T> ResponseEntity<T> forUser(WebRequest request, String etag, Supplier<T> body) {
+        return ifModified(request, etag, () -> ResponseEntity.ok().cacheControl(REVALIDATE_PRIVATE).body(body.get()));
+    }
+
+    public static <T> ResponseEntity<T> forPublic(WebRequest request, String etag, Supplier<T> body) {
+        return ifModified(request, etag, () -> ResponseEntity.ok().cacheControl(REVALIDATE_PUBLIC).body(body.get()));
+    }
+
+    public static <T> ResponseEntity<T> ifModified(WebRequest request, String etag, Supplier<ResponseEntity<T>> response) {
+        // Sets the ETag header, and the 304 status when the client's copy is current
+        if (request.checkNotModified("\"" + etag + "\"")) {
+            return null;
+        }
+        return response.get();
+    }
+}
@@ -1,63 +1,150 @@
 package com.syntaxvault.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.syntaxvault.config.JwtConfig;
 import io.jsonwebtoken.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.List;
+import java.util.Optional;
 import io.jsonwebtoken.security.Keys;
 
 @Component
 public class JwtUtil {
 
+    private static final int MAX_CACHED_TOKENS = 10_000;
+
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLES_CLAIM = "roles";
+
+    private final JwtConfig jwtConfig;
+
+    // Built once; both are immutable and thread-safe
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    // Tokens that already passed signature verification, keyed by SHA-256 of the token.
+    // Each entry expires together with its token.
+    private final Cache<String, VerifiedToken> verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_TOKENS)
+            .expireAfter(new Expiry<String, VerifiedToken>() {
+                @Override
+                public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                    return Math.max(0, (token.expiresAtMillis() - System.currentTimeMillis()) * 1_000_000L);
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    /**
+     * Claims of a token whose signature and expiration have been checked.
+     * userId and roles are null for tokens issued before they were added as claims.
+     */
+    public record VerifiedToken(String username, Long userId, List<String> roles,
+                                long issuedAtMillis, long expiresAtMillis) {
+        public boolean isExpired() {
+            return expiresAtMillis <= System.currentTimeMillis();
+        }
+    }
+
     @Autowired
-    private JwtConfig jwtConfig;
+    public JwtUtil(JwtConfig jwtConfig) {
+        this.jwtConfig = jwtConfig;
+        this.signingKey = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
 
-    // Generate token for user
-    public String generateToken(String username) {
+    // Generate token for user; id and roles travel as claims so requests need no user lookup
+    public String generateToken(Long userId, String username, Collection<String> roles) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setSubject(username)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + jwtConfig.getExpiration()))
-                .signWith(Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes()), SignatureAlgorithm.HS512)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ROLES_CLAIM, List.copyOf(roles))
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + jwtConfig.getExpiration()))
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    // Validate token
-    public boolean validateToken(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username) && !isTokenExpired(token));
-    }
+    /**
+     * Verifies the token, parsing it at most once while it stays cached.
+     *
+     * @return the verified claims, or empty if the token is malformed, forged or expired
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        String key = hash(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            return cached.isExpired() ? Optional.empty() : Optional.of(cached);
+        }
 
-    // Extract username from token
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        VerifiedToken verified;
+        try {
+            verified = parse(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        verifiedTokens.put(key, verified);
+        return Optional.of(verified);
     }
 
-    // Check if the token has expired
-    public boolean isTokenExpired(String token) {
-        final Date expiration = extractExpiration(token);
-        return expiration.before(new Date());
+    /**
+     * Parses and verifies the token without consulting the cache.
+     *
+     * @throws JwtException if the signature is invalid or the token has expired
+     */
+    public VerifiedToken parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            throw new MalformedJwtException("Token has no expiration");
+        }
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        return new VerifiedToken(claims.getSubject(),
+                claims.get(USER_ID_CLAIM, Long.class),
+                roles != null ? roles.stream().map(String::valueOf).toList() : null,
+                issuedAt != null ? issuedAt.getTime() : 0L,
+                expiration.getTime());
     }
 
-    // Extract expiration date from token
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    // Validate token
+    public boolean validateToken(String token, String username) {
+        return verify(token)
+                .map(verified -> verified.username().equals(username))
+                .orElse(false);
     }
 
-    // Extract specific claim
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    // Extract username from token
+    public String extractUsername(String token) {
+        return parse(token).username();
     }
 
-    // Extract all claims
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes()))
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,29 @@
+package com.syntaxvault.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a list ordered by (lastModifiedDate DESC, id DESC), exchanged
+ * with clients as an opaque URL-safe token.
+ */
+public record SnippetCursor(LocalDateTime lastModifiedDate, Long id) {
+
+    public String encode() {
+        String raw = lastModifiedDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SnippetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new SnippetCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                                     Long.valueOf(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+}
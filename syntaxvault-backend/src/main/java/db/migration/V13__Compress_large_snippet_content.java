@@ -0,0 +1,99 @@
+package db.migration;
+
+import com.syntaxvault.model.ContentCodec;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Compresses the content of existing snippets that reach the compression
+ * threshold. Rows are processed in id order and each chunk is committed on its
+ * own, so the backfill never holds locks on the whole table and an
+ * interrupted run simply continues with the rows still stored plain.
+ *
+ * The bytes of each snippet go to Snippet_Compressed_Contents under the
+ * snippet's own id, and the snippet gets the content_vector the generated
+ * search_vector can no longer compute from its body.
+ */
+public class V13__Compress_large_snippet_content extends BaseJavaMigration {
+
+    private static final int CHUNK_SIZE = 200;
+    private static final int DEFAULT_THRESHOLD = 16384;
+    private static final ContentCodec CODEC = ContentCodec.DEFLATE;
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Map<String, String> placeholders = context.getConfiguration().getPlaceholders();
+        if ("false".equalsIgnoreCase(placeholders.get("contentCompressionEnabled"))) {
+            return;
+        }
+        String configured = placeholders.get("contentCompressionThreshold");
+        int threshold = configured != null ? Integer.parseInt(configured.trim()) : DEFAULT_THRESHOLD;
+
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        // octet_length reads the size from the TOAST header, so rows below the threshold are not detoasted
+        try (PreparedStatement select = connection.prepareStatement(
+                 "SELECT id, content FROM Snippets " +
+                 "WHERE id > ? AND content_codec IS NULL AND octet_length(content) >= ? ORDER BY id LIMIT ?");
+             PreparedStatement insert = connection.prepareStatement(
+                 "INSERT INTO Snippet_Compressed_Contents (id, content) VALUES (?, ?)");
+             PreparedStatement update = connection.prepareStatement(
+                 "UPDATE Snippets SET content = NULL, content_codec = ?, compressed_content_id = ?, " +
+                 "content_vector = to_tsvector('english', left(?, 100000)) WHERE id = ?")) {
+            long lastId = 0;
+            int rows;
+            do {
+                rows = 0;
+                select.setLong(1, lastId);
+                select.setInt(2, threshold);
+                select.setInt(3, CHUNK_SIZE);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                        lastId = rs.getLong(1);
+                        String content = rs.getString(2);
+                        byte[] packed = CODEC.compress(content);
+                        if (packed.length >= content.getBytes(StandardCharsets.UTF_8).length) {
+                            continue;
+                        }
+                        insert.setLong(1, lastId);
+                        insert.setBytes(2, packed);
+                        insert.addBatch();
+                        update.setString(1, CODEC.name());
+                        update.setLong(2, lastId);
+                        update.setString(3, content);
+                        update.setLong(4, lastId);
+                        update.addBatch();
+                    }
+                }
+                insert.executeBatch();
+                update.executeBatch();
+                connection.commit();
+            } while (rows == CHUNK_SIZE);
+
+            // Ids Hibernate allocates from the sequence must start above the reused snippet ids
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT setval('snippet_compressed_contents_id_seq', max(id)) " +
+                                  "FROM Snippet_Compressed_Contents HAVING count(*) > 0");
+            }
+            connection.commit();
+        } catch (Exception e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
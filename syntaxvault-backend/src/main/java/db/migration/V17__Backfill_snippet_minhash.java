@@ -0,0 +1,69 @@
+package db.migration;
+
+import com.syntaxvault.model.ContentCodec;
+import com.syntaxvault.search.MinHash;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Computes the MinHash signature of existing snippets. Like V13 it walks the
+ * table in id order and commits each chunk on its own, so an interrupted run
+ * continues with the rows still missing a signature.
+ */
+public class V17__Backfill_snippet_minhash extends BaseJavaMigration {
+
+    private static final int CHUNK_SIZE = 200;
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (PreparedStatement select = connection.prepareStatement(
+                 "SELECT s.id, s.content, s.content_codec, c.content FROM Snippets s " +
+                 "LEFT JOIN Snippet_Compressed_Contents c ON c.id = s.compressed_content_id " +
+                 "WHERE s.id > ? AND s.content_minhash IS NULL ORDER BY s.id LIMIT ?");
+             PreparedStatement update = connection.prepareStatement(
+                 "UPDATE Snippets SET content_minhash = ? WHERE id = ?")) {
+            long lastId = 0;
+            int rows;
+            do {
+                rows = 0;
+                select.setLong(1, lastId);
+                select.setInt(2, CHUNK_SIZE);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        rows++;
+                        lastId = rs.getLong(1);
+                        String codec = rs.getString(3);
+                        String content = codec == null
+                            ? rs.getString(2)
+                            : ContentCodec.valueOf(codec).decompress(rs.getBytes(4));
+                        byte[] signature = MinHash.toBytes(MinHash.signature(content));
+                        if (signature == null) {
+                            continue;
+                        }
+                        update.setBytes(1, signature);
+                        update.setLong(2, lastId);
+                        update.addBatch();
+                    }
+                }
+                update.executeBatch();
+                connection.commit();
+            } while (rows == CHUNK_SIZE);
+        } catch (Exception e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
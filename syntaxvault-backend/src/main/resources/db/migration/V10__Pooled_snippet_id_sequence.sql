@@ -0,0 +1,2 @@
+-- Hibernate reserves snippet ids in blocks of 50 (pooled optimizer) so inserts can be JDBC-batched
+ALTER SEQUENCE snippets_id_seq INCREMENT BY 50;
@@ -0,0 +1,4 @@
+-- Prefix lookups on materialized folder paths (path LIKE '/a/b/%').
+-- The existing idx_folders_path uses the database collation and cannot serve LIKE
+-- outside the C locale; text_pattern_ops compares character by character.
+CREATE INDEX idx_folders_user_path_prefix ON Folders(user_id, path text_pattern_ops);
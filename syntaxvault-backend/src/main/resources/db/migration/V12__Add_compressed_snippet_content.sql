@@ -0,0 +1,52 @@
+-- Large content may be stored compressed: content_codec names the codec and is NULL for plain rows.
+-- The compressed bytes live in their own table, so loading or scanning snippets only reads a reference to them.
+CREATE TABLE Snippet_Compressed_Contents (
+    id BIGINT PRIMARY KEY,
+    content BYTEA NOT NULL
+);
+
+-- The bytes are already compressed, so TOAST should only move them out of line
+ALTER TABLE Snippet_Compressed_Contents ALTER COLUMN content SET STORAGE EXTERNAL;
+
+-- Hibernate reserves ids in blocks of 50, like snippets_id_seq (see V10)
+CREATE SEQUENCE snippet_compressed_contents_id_seq INCREMENT BY 50 OWNED BY Snippet_Compressed_Contents.id;
+
+ALTER TABLE Snippets ALTER COLUMN content DROP NOT NULL;
+ALTER TABLE Snippets ADD COLUMN content_codec VARCHAR(16);
+ALTER TABLE Snippets ADD COLUMN compressed_content_id BIGINT UNIQUE REFERENCES Snippet_Compressed_Contents(id);
+
+ALTER TABLE Snippets ADD CONSTRAINT chk_snippets_content_storage CHECK (
+    (content_codec IS NULL AND content IS NOT NULL AND compressed_content_id IS NULL)
+    OR (content_codec IS NOT NULL AND content IS NULL AND compressed_content_id IS NOT NULL)
+);
+
+-- A content row belongs to a single snippet: drop it once the snippet is deleted or no longer points at it
+CREATE FUNCTION delete_snippet_compressed_content() RETURNS trigger AS $$
+BEGIN
+    DELETE FROM Snippet_Compressed_Contents WHERE id = OLD.compressed_content_id;
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_snippets_compressed_content_deleted
+AFTER DELETE ON Snippets
+FOR EACH ROW WHEN (OLD.compressed_content_id IS NOT NULL)
+EXECUTE FUNCTION delete_snippet_compressed_content();
+
+CREATE TRIGGER trg_snippets_compressed_content_replaced
+AFTER UPDATE OF compressed_content_id ON Snippets
+FOR EACH ROW WHEN (OLD.compressed_content_id IS NOT NULL AND OLD.compressed_content_id IS DISTINCT FROM NEW.compressed_content_id)
+EXECUTE FUNCTION delete_snippet_compressed_content();
+
+-- Rows stored plain again are indexed from their content by search_vector itself
+CREATE FUNCTION clear_snippet_content_vector() RETURNS trigger AS $$
+BEGIN
+    NEW.content_vector := NULL;
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_snippets_content_vector_cleared
+BEFORE UPDATE OF compressed_content_id ON Snippets
+FOR EACH ROW WHEN (NEW.compressed_content_id IS NULL AND NEW.content_vector IS NOT NULL)
+EXECUTE FUNCTION clear_snippet_content_vector();
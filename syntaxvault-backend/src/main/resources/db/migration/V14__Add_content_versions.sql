@@ -0,0 +1,52 @@
+-- Counters for changes that show up in rendered snippets without touching Snippets rows
+CREATE TABLE Content_Versions (
+    name VARCHAR(32) PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+
+INSERT INTO Content_Versions (name, version) VALUES ('tags', 0);
+
+-- Tag renames and deletions change the tag names of every snippet carrying the tag
+CREATE FUNCTION bump_tags_version() RETURNS trigger AS $$
+BEGIN
+    UPDATE Content_Versions SET version = version + 1 WHERE name = 'tags';
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_tags_version
+AFTER UPDATE OR DELETE ON Tags
+FOR EACH STATEMENT EXECUTE FUNCTION bump_tags_version();
+
+-- Collections carry their own modification time; membership changes touch the owning collection
+ALTER TABLE Collections ADD COLUMN last_modified_date TIMESTAMP NOT NULL DEFAULT now();
+
+CREATE FUNCTION touch_collection() RETURNS trigger AS $$
+BEGIN
+    NEW.last_modified_date := clock_timestamp();
+    RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_collections_touch
+BEFORE UPDATE ON Collections
+FOR EACH ROW EXECUTE FUNCTION touch_collection();
+
+CREATE FUNCTION touch_member_collections() RETURNS trigger AS $$
+BEGIN
+    UPDATE Collections SET last_modified_date = clock_timestamp()
+    WHERE id IN (SELECT DISTINCT collection_id FROM changed_rows);
+    RETURN NULL;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_snippet_collections_added
+AFTER INSERT ON Snippet_Collections
+REFERENCING NEW TABLE AS changed_rows
+FOR EACH STATEMENT EXECUTE FUNCTION touch_member_collections();
+
+-- Also fires when a deleted snippet cascades out of its collections
+CREATE TRIGGER trg_snippet_collections_removed
+AFTER DELETE ON Snippet_Collections
+REFERENCING OLD TABLE AS changed_rows
+FOR EACH STATEMENT EXECUTE FUNCTION touch_member_collections();
@@ -0,0 +1,13 @@
+-- Change notifications written in the same transaction as the change they describe.
+-- Every instance's ChangeEventDispatcher reads the rows from its own high-water mark,
+-- so rows are never claimed or deleted on delivery; the retention sweep removes old ones.
+CREATE TABLE Change_Outbox (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(32) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    change_type VARCHAR(16) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- For the retention sweep
+CREATE INDEX idx_change_outbox_created ON Change_Outbox (created_at);
@@ -0,0 +1,3 @@
+-- MinHash signature of the snippet content (see MinHash), used to find near-duplicates.
+-- NULL until computed, and for content without any tokens; V17 backfills existing rows.
+ALTER TABLE Snippets ADD COLUMN content_minhash BYTEA;
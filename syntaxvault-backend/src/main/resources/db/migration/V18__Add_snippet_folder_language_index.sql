@@ -0,0 +1,3 @@
+-- Keyset order per folder and language, for language-filtered listings of a folder subtree
+-- (lower() to match the case-insensitive language filter used everywhere else)
+CREATE INDEX idx_snippets_folder_language_modified ON Snippets(folder_id, lower(language), last_modified_date DESC, id DESC);
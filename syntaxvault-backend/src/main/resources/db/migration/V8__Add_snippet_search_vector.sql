@@ -0,0 +1,16 @@
+-- Content lexemes for rows whose body the generated column cannot read: the application writes
+-- them for snippets stored compressed (see V12 and SnippetContentListener); NULL for plain rows
+ALTER TABLE Snippets ADD COLUMN content_vector tsvector;
+
+-- Weighted full-text document: title ranks above description, description above content.
+-- to_tsvector rejects documents whose vector passes 1 MB, so only the first 100000 characters
+-- of the content are indexed (SnippetContentListener.SEARCH_CONTENT_MAX_CHARS)
+ALTER TABLE Snippets
+ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(description, '')), 'B') ||
+    setweight(coalesce(content_vector, to_tsvector('english', left(coalesce(content, ''), 100000))), 'C')
+) STORED;
+
+-- GIN index so @@ matches only touch the posting lists of the query terms
+CREATE INDEX idx_snippets_search_vector ON Snippets USING GIN(search_vector);
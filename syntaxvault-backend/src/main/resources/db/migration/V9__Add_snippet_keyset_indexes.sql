@@ -0,0 +1,7 @@
+-- Composite indexes matching the (last_modified_date DESC, id DESC) keyset order of the list endpoints
+CREATE INDEX idx_snippets_user_modified ON Snippets(user_id, last_modified_date DESC, id DESC);
+
+CREATE INDEX idx_snippets_folder_modified ON Snippets(folder_id, last_modified_date DESC, id DESC);
+
+-- Partial index for the public feed
+CREATE INDEX idx_snippets_public_modified ON Snippets(last_modified_date DESC, id DESC) WHERE is_public;
@@ -0,0 +1,141 @@
+package com.syntaxvault.events;
+
+import com.syntaxvault.querycount.QueryCountTestConfiguration;
+import com.syntaxvault.querycount.SeededDatabase;
+import com.syntaxvault.repository.ChangeOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives ChangeEventDispatcher batch by batch against the seeded embedded
+ * Postgres, with a fresh dispatcher per test so each one starts its own mark.
+ */
+@SpringBootTest(properties = {
+    "jwt.secret=query-count-secret-query-count-secret-query-count-secret-query-count-secret",
+    "jwt.expiration=3600000",
+    "spring.jpa.show-sql=false",
+    "syntaxvault.outbox.dispatcher.enabled=false"
+})
+@Import(QueryCountTestConfiguration.class)
+public class ChangeEventDispatcherTest {
+
+    private static final int BATCH_SIZE = 5;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", SeededDatabase::jdbcUrl);
+        registry.add("spring.datasource.username", () -> SeededDatabase.USER);
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @Autowired
+    private ChangeOutboxRepository outboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<ChangeEvent> delivered = new ArrayList<>();
+
+    private ChangeEventDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        // Everything recorded so far, by this or other tests, is from before the window
+        jdbcTemplate.update("UPDATE Change_Outbox SET created_at = now() - interval '1 day'");
+        dispatcher = new ChangeEventDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "outboxRepository", outboxRepository);
+        ReflectionTestUtils.setField(dispatcher, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(dispatcher, "subscribers", List.<ChangeEventSubscriber>of(delivered::addAll));
+        ReflectionTestUtils.setField(dispatcher, "batchSize", BATCH_SIZE);
+        ReflectionTestUtils.setField(dispatcher, "gapTimeout", Duration.ofMinutes(5));
+    }
+
+    @Test
+    void dispatchBatch_ShouldStartAfterSweptRowsWhenWindowIsEmpty() {
+        // The retention sweep removed everything, but the sequence kept counting
+        jdbcTemplate.update("DELETE FROM Change_Outbox");
+        skipIds(10_000);
+
+        assertEquals(0, dispatcher.dispatchBatch());
+        long id = record(42);
+
+        assertEquals(1, dispatcher.dispatchBatch());
+        assertEquals(List.of(id), outboxIds());
+        assertTrue(pending().isEmpty());
+    }
+
+    @Test
+    void dispatchBatch_ShouldStartFromOldestRowInWindow() {
+        long first = record(1);
+        long second = record(2);
+
+        assertEquals(2, dispatcher.dispatchBatch());
+        assertEquals(List.of(first, second), outboxIds());
+        assertTrue(pending().isEmpty());
+        assertEquals(0, dispatcher.dispatchBatch());
+    }
+
+    @Test
+    void dispatchBatch_ShouldDeliverRowsCommittedBehindTheMark() {
+        assertEquals(0, dispatcher.dispatchBatch());
+        // An id taken by a transaction that has not committed yet
+        long late = jdbcTemplate.queryForObject("SELECT nextval('change_outbox_id_seq')", Long.class);
+        long next = record(2);
+
+        assertEquals(1, dispatcher.dispatchBatch());
+        assertEquals(List.of(late), List.copyOf(pending().keySet()));
+
+        jdbcTemplate.update("INSERT INTO Change_Outbox (id, aggregate_type, aggregate_id, change_type) " +
+            "VALUES (?, 'SNIPPET', 1, 'UPDATED')", late);
+        assertEquals(1, dispatcher.dispatchBatch());
+        assertEquals(List.of(next, late), outboxIds());
+        assertTrue(pending().isEmpty());
+    }
+
+    @Test
+    void dispatchBatch_ShouldNotTrackGapsWiderThanTheBatch() {
+        assertEquals(0, dispatcher.dispatchBatch());
+        // A rolled back bulk import leaves a run of ids that never commit
+        skipIds(BATCH_SIZE * 20);
+        long id = record(3);
+
+        assertEquals(1, dispatcher.dispatchBatch());
+        assertEquals(List.of(id), outboxIds());
+        assertTrue(pending().isEmpty());
+    }
+
+    private long record(long snippetId) {
+        return jdbcTemplate.queryForObject("INSERT INTO Change_Outbox (aggregate_type, aggregate_id, change_type) " +
+            "VALUES ('SNIPPET', ?, 'UPDATED') RETURNING id", Long.class, snippetId);
+    }
+
+    private void skipIds(int count) {
+        jdbcTemplate.queryForObject("SELECT setval('change_outbox_id_seq', nextval('change_outbox_id_seq') + ?)",
+            Long.class, count);
+    }
+
+    private List<Long> outboxIds() {
+        return delivered.stream().map(ChangeEvent::outboxId).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Long> pending() {
+        return (Map<Long, Long>) ReflectionTestUtils.getField(dispatcher, "pending");
+    }
+}
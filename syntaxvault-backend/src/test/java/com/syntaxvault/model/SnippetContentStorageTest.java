@@ -0,0 +1,145 @@
+package com.syntaxvault.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syntaxvault.querycount.QueryCountTestConfiguration;
+import com.syntaxvault.querycount.QueryRecorder;
+import com.syntaxvault.querycount.SeededDatabase;
+import com.syntaxvault.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Writes snippets above the compression threshold through the API and checks
+ * how they are stored and indexed in the seeded embedded Postgres.
+ */
+@SpringBootTest(properties = {
+    "jwt.secret=query-count-secret-query-count-secret-query-count-secret-query-count-secret",
+    "jwt.expiration=3600000",
+    "spring.jpa.show-sql=false",
+    "syntaxvault.outbox.dispatcher.enabled=false"
+})
+@AutoConfigureMockMvc
+@Import(QueryCountTestConfiguration.class)
+public class SnippetContentStorageTest {
+
+    // Seeded: alice (user 1) owns folder 1
+    private static final long FOLDER = 1;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", SeededDatabase::jdbcUrl);
+        registry.add("spring.datasource.username", () -> SeededDatabase.USER);
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private QueryRecorder queryRecorder;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // About 2 MB of distinct tokens: far above the compression threshold, and a vector past
+    // to_tsvector's 1 MB limit if the whole body were indexed
+    private static String largeContent(String firstWord) {
+        StringBuilder content = new StringBuilder(firstWord).append('\n');
+        for (int i = 0; content.length() < 2_000_000; i++) {
+            content.append("token").append(i).append(' ');
+        }
+        return content.toString();
+    }
+
+    @Test
+    void largeContent_ShouldStayCompressedAndSearchableThroughUpdates() throws Exception {
+        String alice = "Bearer " + jwtUtil.generateToken(1L, "alice", List.of("ROLE_USER"));
+        String created = mockMvc.perform(post("/api/snippets").header("Authorization", alice)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(snippetJson(largeContent("zebrafish"))))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        long id = objectMapper.readTree(created).get("id").asLong();
+        Long firstContentId = compressedContentId(id);
+        assertNotNull(firstContentId);
+        assertTrue(matches(id, "zebrafish"));
+
+        mockMvc.perform(put("/api/snippets/{id}", id).header("Authorization", alice)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(snippetJson(largeContent("quokka"))))
+            .andExpect(status().isOk());
+        assertNotNull(compressedContentId(id));
+        assertEquals(0, contentRows(firstContentId));
+        assertTrue(matches(id, "quokka"));
+        assertFalse(matches(id, "zebrafish"));
+
+        // A move writes only the columns it changes
+        queryRecorder.reset();
+        mockMvc.perform(put("/api/snippets/{id}/move", id).header("Authorization", alice)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"folderId\":" + FOLDER + "}"))
+            .andExpect(status().isOk());
+        List<String> updates = queryRecorder.statements().stream()
+            .map(statement -> statement.toLowerCase(Locale.ROOT))
+            .filter(statement -> statement.startsWith("update snippets"))
+            .toList();
+        assertEquals(1, updates.size());
+        assertFalse(updates.get(0).contains("content"), updates.get(0));
+        assertTrue(matches(id, "quokka"));
+
+        Long secondContentId = compressedContentId(id);
+        mockMvc.perform(put("/api/snippets/{id}", id).header("Authorization", alice)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(snippetJson("walrus = plain again")))
+            .andExpect(status().isOk());
+        assertNull(compressedContentId(id));
+        assertEquals(0, contentRows(secondContentId));
+        assertNull(jdbcTemplate.queryForObject("SELECT content_vector::text FROM Snippets WHERE id = ?", String.class, id));
+        assertTrue(matches(id, "walrus"));
+        assertFalse(matches(id, "quokka"));
+    }
+
+    private Long compressedContentId(long id) {
+        return jdbcTemplate.queryForObject("SELECT compressed_content_id FROM Snippets WHERE id = ?", Long.class, id);
+    }
+
+    private int contentRows(long contentId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM Snippet_Compressed_Contents WHERE id = ?",
+            Integer.class, contentId);
+    }
+
+    private boolean matches(long id, String word) {
+        return jdbcTemplate.queryForObject("SELECT search_vector @@ to_tsquery('english', ?) FROM Snippets WHERE id = ?",
+            Boolean.class, word, id);
+    }
+
+    private String snippetJson(String content) throws Exception {
+        return objectMapper.writeValueAsString(Map.of(
+            "title", "stored content",
+            "content", content,
+            "language", "text",
+            "isPublic", false,
+            "tags", List.of()));
+    }
+}
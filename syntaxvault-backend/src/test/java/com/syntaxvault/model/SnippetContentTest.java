@@ -0,0 +1,55 @@
+package com.syntaxvault.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnippetContentTest {
+
+    private static final String LARGE = "SELECT * FROM snippets WHERE id = 1;\n".repeat(1000);
+
+    @Test
+    void compressContent_ShouldStoreLargeContentCompressed() {
+        Snippet snippet = new Snippet();
+        snippet.setContent(LARGE);
+
+        snippet.compressContent(ContentCodec.DEFLATE, 1024);
+
+        assertEquals(ContentCodec.DEFLATE, snippet.getContentCodec());
+        assertTrue(snippet.getCompressedContent().length < LARGE.length());
+        assertEquals(LARGE, snippet.getContent());
+    }
+
+    @Test
+    void compressContent_ShouldKeepSmallContentPlain() {
+        Snippet snippet = new Snippet();
+        snippet.setContent("print('hi')");
+
+        snippet.compressContent(ContentCodec.DEFLATE, 1024);
+
+        assertNull(snippet.getContentCodec());
+        assertNull(snippet.getCompressedContent());
+        assertEquals("print('hi')", snippet.getContent());
+    }
+
+    @Test
+    void getContent_ShouldDecompressStoredRow() {
+        Snippet snippet = new Snippet();
+        snippet.setContentCodec(ContentCodec.DEFLATE);
+        snippet.setCompressedContent(ContentCodec.DEFLATE.compress("naïve → ünïcode"));
+
+        assertEquals("naïve → ünïcode", snippet.getContent());
+    }
+
+    @Test
+    void setContent_ShouldReturnRowToPlainStorage() {
+        Snippet snippet = new Snippet();
+        snippet.setContent(LARGE);
+        snippet.compressContent(ContentCodec.DEFLATE, 1024);
+
+        snippet.setContent("x = 1");
+
+        assertNull(snippet.getContentCodec());
+        assertNull(snippet.getCompressedContent());
+        assertEquals("x = 1", snippet.getContent());
+    }
+}
@@ -0,0 +1,456 @@
+package com.syntaxvault.querycount;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syntaxvault.search.SnippetDuplicateIndex;
+import com.syntaxvault.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Upper bounds on the statements each endpoint executes against the seeded
+ * dataset (see querycount/seed.sql). The dataset is large enough that a query
+ * per snippet, tag, folder or collection exceeds every bound, so an N+1
+ * regression fails the build. Caches are cleared before each request, so the
+ * bounds are for cold reads.
+ *
+ * When a change legitimately needs more statements, raise the bound in the
+ * same change and say why.
+ */
+@SpringBootTest(properties = {
+    "jwt.secret=query-count-secret-query-count-secret-query-count-secret-query-count-secret",
+    "jwt.expiration=3600000",
+    "spring.jpa.show-sql=false",
+    // Outbox delivery runs on its own thread and would race the count; only the outbox insert is counted
+    "syntaxvault.outbox.dispatcher.enabled=false"
+})
+@AutoConfigureMockMvc
+@Import(QueryCountTestConfiguration.class)
+class EndpointQueryCountTest {
+
+    // Seeded ids: alice (user 1) owns folders 1-21, snippets 1-60 and collections 1-6
+    private static final long OWN_SNIPPET = 1;
+    private static final long PUBLIC_SNIPPET = 3;
+    private static final long ROOT_FOLDER = 1;
+    private static final long LEAF_FOLDER = 10;
+    private static final long OWN_COLLECTION = 1;
+    private static final long PUBLIC_COLLECTION = 2;
+    private static final long TAG = 1;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", SeededDatabase::jdbcUrl);
+        registry.add("spring.datasource.username", () -> SeededDatabase.USER);
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private QueryRecorder queryRecorder;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SnippetDuplicateIndex duplicateIndex;
+
+    private String alice;
+    private String admin;
+
+    @BeforeEach
+    void setUp() {
+        alice = "Bearer " + jwtUtil.generateToken(1L, "alice", List.of("ROLE_USER"));
+        admin = "Bearer " + jwtUtil.generateToken(1L, "alice", List.of("ROLE_USER", "ROLE_ADMIN"));
+    }
+
+    // Snippets
+
+    @Test
+    void createSnippet() throws Exception {
+        expectQueries(4, post("/api/snippets").header("Authorization", alice)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(snippetJson("created", "tag-1", "tag-2", "brand-new-tag")));
+    }
+
+    @Test
+    void getSnippetById() throws Exception {
+        expectQueries(4, get("/api/snippets/{id}", OWN_SNIPPET).header("Authorization", alice));
+    }
+
+    @Test
+    void getAllSnippets() throws Exception {
+        expectQueries(3, get("/api/snippets").header("Authorization", alice));
+    }
+
+    @Test
+    void getAllSnippetsPage() throws Exception {
+        expectQueries(4, get("/api/snippets").param("limit", "20").header("Authorization", alice));
+    }
+
+    @Test
+    void getSnippetSummaries() throws Exception {
+        expectQueries(2, get("/api/snippets/summaries").header("Authorization", alice));
+    }
+
+    @Test
+    void updateSnippet() throws Exception {
+        long id = createOwnSnippet();
+        expectQueries(8, put("/api/snippets/{id}", id).header("Authorization", alice)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(snippetJson("updated", "tag-3", "tag-4")));
+    }
+
+    @Test
+    void deleteSnippet() throws Exception {
+        long id = createOwnSnippet();
+        expectQueries(4, delete("/api/snippets/{id}", id).header("Authorization", alice));
+    }
+
+    @Test
+    void searchSnippets() throws Exception {
+        expectQueries(2, get("/api/snippets/search").param("keyword", "quick sort")
+            .param("language", "python").param("tags", "tag-2").header("Authorization", alice));
+    }
+
+    @Test
+    void findDuplicates() throws Exception {
+        long id = createOwnSnippet();
+        createOwnSnippet();
+        // Outbox delivery is off, so load the new signatures into the LSH buckets directly
+        duplicateIndex.rebuild();
+        expectQueries(3, get("/api/snippets/{id}/duplicates", id).header("Authorization", alice));
+    }
+
+    @Test
+    void identifierSearch() throws Exception {
+        expectQueries(2, get("/api/snippets/search").param("keyword", "ident:quick")
+            .header("Authorization", alice));
+    }
+
+    @Test
+    void searchSnippetsWithFacets() throws Exception {
+        expectQueries(2, get("/api/snippets/search").param("keyword", "quick sort")
+            .param("facets", "10").header("Authorization", alice));
+    }
+
+    @Test
+    void rankedSearch() throws Exception {
+        expectQueries(4, get("/api/snippets/search/ranked").param("q", "quick sort").header("Authorization", alice));
+    }
+
+    @Test
+    void getUserSnippets() throws Exception {
+        expectQueries(3, get("/api/snippets/user").header("Authorization", alice));
+    }
+
+    @Test
+    void getUserSnippetsPage() throws Exception {
+        expectQueries(4, get("/api/snippets/user").param("limit", "20").header("Authorization", alice));
+    }
+
+    @Test
+    void importSnippets() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 25; i++) {
+            body.append(snippetJson("imported " + i, "tag-5", "import-tag-" + (i % 3))).append('\n');
+        }
+        expectQueries(4, post("/api/snippets/import").header("Authorization", alice)
+            .contentType("application/x-ndjson")
+            .content(body.toString()));
+    }
+
+    @Test
+    void exportVault() throws Exception {
+        expectQueries(4, get("/api/snippets/export").header("Authorization", alice));
+    }
+
+    @Test
+    void getPublicSnippets() throws Exception {
+        expectQueries(3, get("/api/snippets/public"));
+    }
+
+    @Test
+    void getPublicSnippetsPage() throws Exception {
+        expectQueries(4, get("/api/snippets/public").param("limit", "20"));
+    }
+
+    @Test
+    void getPublicSnippetSummaries() throws Exception {
+        expectQueries(2, get("/api/snippets/public/summaries"));
+    }
+
+    @Test
+    void getPublicSnippetById() throws Exception {
+        expectQueries(4, get("/api/snippets/public/{id}", PUBLIC_SNIPPET));
+    }
+
+    @Test
+    void moveSnippet() throws Exception {
+        long id = createOwnSnippet();
+        expectQueries(5, put("/api/snippets/{id}/move", id).header("Authorization", alice)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"folderId\":" + LEAF_FOLDER + "}"));
+    }
+
+    @Test
+    void getSnippetsByFolder() throws Exception {
+        expectQueries(2, get("/api/snippets/folder/{id}", LEAF_FOLDER).header("Authorization", alice));
+    }
+
+    @Test
+    void getSnippetsByFolderPage() throws Exception {
+        expectQueries(4, get("/api/snippets/folder/{id}", LEAF_FOLDER).param("limit", "20")
+            .header("Authorization", alice));
+    }
+
+    @Test
+    void getSnippetsUnderFolder() throws Exception {
+        expectQueries(4, get("/api/snippets/folder/{id}", ROOT_FOLDER).param("recursive", "true")
+            .header("Authorization", alice));
+    }
+
+    // Folders
+
+    @Test
+    void createFolder() throws Exception {
+        expectQueries(5, post("/api/folders").header("Authorization", alice)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"created\",\"parentId\":" + ROOT_FOLDER + "}"));
+    }
+
+    @Test
+    void getRootFolders() throws Exception {
+        expectQueries(2, get("/api/folders/root").header("Authorization", alice));
+    }
+
+    @Test
+    void getFolderTree() throws Exception {
+        expectQueries(2, get("/api/folders/tree").header("Authorization", alice));
+    }
+
+    @Test
+    void getFolderById() throws Exception {
+        expectQueries(4, get("/api/folders/{id}", ROOT_FOLDER).header("Authorization", alice));
+    }
+
+    @Test
+    void updateFolder() throws Exception {
+        long id = createOwnFolder();
+        expectQueries(8, put("/api/folders/{id}", id).header("Authorization", alice)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"renamed\",\"parentId\":" + LEAF_FOLDER + "}"));
+    }
+
+    @Test
+    void deleteFolder() throws Exception {
+        long id = createOwnFolder();
+        expectQueries(4, delete("/api/folders/{id}", id).header("Authorization", alice));
+    }
+
+    @Test
+    void getAllFolders() throws Exception {
+        expectQueries(2, get("/api/folders").header("Authorization", alice));
+    }
+
+    // Collections
+
+    @Test
+    void createCollection() throws Exception {
+        expectQueries(5, post("/api/collections").header("Authorization", alice)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"created\",\"isPublic\":true,\"snippetIds\":[3,6,9,12,15,18,21,24]}"));
+    }
+
+    @Test
+    void getCollectionById() throws Exception {
+        // One more for the ETag's version query
+        expectQueries(3, get("/api/collections/{id}", OWN_COLLECTION).header("Authorization", alice));
+    }
+
+    @Test
+    void getAllCollections() throws Exception {
+        expectQueries(4, get("/api/collections").header("Authorization", alice));
+    }
+
+    @Test
+    void updateCollection() throws Exception {
+        long id = createOwnCollection();
+        expectQueries(9, put("/api/collections/{id}", id).header("Authorization", alice)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"renamed\",\"isPublic\":false,\"snippetIds\":[11,12,13,14,15,16]}"));
+    }
+
+    @Test
+    void updateMembership() throws Exception {
+        long id = createOwnCollection();
+        expectQueries(5, patch("/api/collections/{id}/snippets", id).header("Authorization", alice)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"add\":[21,22,23,24,25],\"remove\":[1,2]}"));
+    }
+
+    @Test
+    void deleteCollection() throws Exception {
+        long id = createOwnCollection();
+        expectQueries(4, delete("/api/collections/{id}", id).header("Authorization", admin));
+    }
+
+    @Test
+    void getPublicCollections() throws Exception {
+        expectQueries(4, get("/api/collections/public"));
+    }
+
+    @Test
+    void getPublicCollectionById() throws Exception {
+        // One more for the ETag's version query
+        expectQueries(4, get("/api/collections/public/{id}", PUBLIC_COLLECTION));
+    }
+
+    @Test
+    void getCollectionById_WhenNotModified() throws Exception {
+        String etag = expectQueries(3, get("/api/collections/{id}", OWN_COLLECTION).header("Authorization", alice))
+            .getResponse().getHeader("ETag");
+        queryRecorder.reset();
+
+        MvcResult result = mockMvc.perform(get("/api/collections/{id}", OWN_COLLECTION)
+            .header("Authorization", alice).header("If-None-Match", etag)).andReturn();
+
+        // Only the version query runs; the collection is neither loaded nor serialized
+        assertEquals(304, result.getResponse().getStatus());
+        assertEquals("", result.getResponse().getContentAsString());
+        assertEquals(1, queryRecorder.statements().size(), String.join("\n", queryRecorder.statements()));
+    }
+
+    // Tags
+
+    @Test
+    void getAllTags() throws Exception {
+        expectQueries(1, get("/api/tags").header("Authorization", alice));
+    }
+
+    @Test
+    void createTag() throws Exception {
+        expectQueries(1, post("/api/tags").header("Authorization", alice)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"created-tag\"}"));
+    }
+
+    @Test
+    void getTagById() throws Exception {
+        expectQueries(1, get("/api/tags/{id}", TAG).header("Authorization", alice));
+    }
+
+    @Test
+    void updateTag() throws Exception {
+        long id = createTag("tag-to-rename");
+        expectQueries(3, put("/api/tags/{id}", id).header("Authorization", alice)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"renamed-tag\"}"));
+    }
+
+    @Test
+    void deleteTag() throws Exception {
+        long id = createTag("tag-to-delete");
+        expectQueries(3, delete("/api/tags/{id}", id).header("Authorization", alice));
+    }
+
+    @Test
+    void searchTags() throws Exception {
+        expectQueries(1, get("/api/tags/search").param("query", "tag-1").header("Authorization", alice));
+    }
+
+    @Test
+    void autocompleteTags() throws Exception {
+        expectQueries(0, get("/api/tags/autocomplete").param("prefix", "tag-1").header("Authorization", alice));
+    }
+
+    /**
+     * Performs the request on cold caches, waits for any async dispatch and
+     * fails if it was not successful or executed more than maxQueries
+     * statements.
+     */
+    private MvcResult expectQueries(int maxQueries, MockHttpServletRequestBuilder request) throws Exception {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        queryRecorder.reset();
+
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+
+        List<String> statements = queryRecorder.statements();
+        int status = result.getResponse().getStatus();
+        assertTrue(status >= 200 && status < 300, "Unexpected status " + status + ": "
+            + result.getResponse().getContentAsString());
+        assertTrue(statements.size() <= maxQueries, "Expected at most " + maxQueries + " statements but "
+            + statements.size() + " were executed:\n" + String.join("\n", statements));
+        return result;
+    }
+
+    private long createOwnSnippet() throws Exception {
+        return idOf(post("/api/snippets").header("Authorization", alice)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(snippetJson("fixture", "tag-1")));
+    }
+
+    private long createOwnFolder() throws Exception {
+        return idOf(post("/api/folders").header("Authorization", alice)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"fixture\",\"parentId\":" + ROOT_FOLDER + "}"));
+    }
+
+    private long createOwnCollection() throws Exception {
+        return idOf(post("/api/collections").header("Authorization", alice)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"fixture\",\"snippetIds\":[1,2,3,4]}"));
+    }
+
+    private long createTag(String name) throws Exception {
+        return idOf(post("/api/tags").header("Authorization", alice)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"name\":\"" + name + "\"}"));
+    }
+
+    private long idOf(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request).andReturn().getResponse().getContentAsString();
+        JsonNode created = objectMapper.readTree(body);
+        return created.get("id").asLong();
+    }
+
+    private String snippetJson(String title, String... tags) throws Exception {
+        return objectMapper.writeValueAsString(java.util.Map.of(
+            "title", title,
+            "description", "query count fixture",
+            "content", "int answer = 42; // " + title,
+            "language", "java",
+            "isPublic", true,
+            "tags", List.of(tags)));
+    }
+}
@@ -0,0 +1,38 @@
+package com.syntaxvault.querycount;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application DataSource in a datasource-proxy that reports to a
+ * shared QueryRecorder. Import it into a test to count statements.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class QueryCountTestConfiguration {
+
+    private static final QueryRecorder RECORDER = new QueryRecorder();
+
+    @Bean
+    public static QueryRecorder queryRecorder() {
+        return RECORDER;
+    }
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                        .name("query-count")
+                        .listener(RECORDER)
+                        .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
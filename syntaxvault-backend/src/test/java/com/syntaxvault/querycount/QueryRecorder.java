@@ -0,0 +1,37 @@
+package com.syntaxvault.querycount;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Records every statement executed through the proxied DataSource, from any
+ * thread, so work done on async dispatches (streamed exports) is counted too.
+ * A JDBC batch counts as one statement, since it is one round trip.
+ */
+public class QueryRecorder implements QueryExecutionListener {
+
+    private final List<String> statements = new ArrayList<>();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public synchronized void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        statements.add(queryInfoList.stream()
+            .map(QueryInfo::getQuery)
+            .collect(Collectors.joining("; ")));
+    }
+
+    public synchronized void reset() {
+        statements.clear();
+    }
+
+    public synchronized List<String> statements() {
+        return new ArrayList<>(statements);
+    }
+}
@@ -0,0 +1,55 @@
+package com.syntaxvault.querycount;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * An embedded Postgres, migrated and loaded with querycount/seed.sql before
+ * the application context starts, so startup work such as the search index
+ * rebuild sees the full dataset. Started once per JVM and stopped on exit.
+ */
+public final class SeededDatabase {
+
+    public static final String USER = "postgres";
+
+    private static EmbeddedPostgres postgres;
+
+    private SeededDatabase() {
+    }
+
+    public static synchronized String jdbcUrl() {
+        if (postgres == null) {
+            postgres = start();
+        }
+        return postgres.getJdbcUrl(USER, "postgres");
+    }
+
+    private static EmbeddedPostgres start() {
+        try {
+            EmbeddedPostgres started = EmbeddedPostgres.builder().start();
+            Flyway.configure()
+                .dataSource(started.getPostgresDatabase())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+            try (Connection connection = started.getPostgresDatabase().getConnection()) {
+                ScriptUtils.executeSqlScript(connection, new ClassPathResource("querycount/seed.sql"));
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    started.close();
+                } catch (IOException e) {
+                    // The JVM is exiting; nothing left to clean up for
+                }
+            }));
+            return started;
+        } catch (IOException | SQLException e) {
+            throw new RuntimeException("Failed to start the seeded test database", e);
+        }
+    }
+}
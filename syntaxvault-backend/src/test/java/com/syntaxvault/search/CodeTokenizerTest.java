@@ -0,0 +1,60 @@
+package com.syntaxvault.search;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CodeTokenizerTest {
+
+    @Test
+    void splitIdentifier_ShouldSplitCaseAndSeparatorBoundaries() {
+        assertEquals(List.of("parse", "json"), CodeTokenizer.splitIdentifier("parseJson"));
+        assertEquals(List.of("parse", "json"), CodeTokenizer.splitIdentifier("parse_json"));
+        assertEquals(List.of("json", "parser"), CodeTokenizer.splitIdentifier("JSONParser"));
+        assertEquals(List.of("http2", "client"), CodeTokenizer.splitIdentifier("http2Client"));
+        assertEquals(List.of("max", "value"), CodeTokenizer.splitIdentifier("MAX_VALUE"));
+    }
+
+    @Test
+    void terms_ShouldIndexPartsAndJoinedIdentifiers() {
+        Set<String> terms = CodeTokenizer.terms("String body = readAllLines(path);", "java");
+
+        assertTrue(terms.containsAll(List.of("string", "body", "read", "all", "lines", "readalllines", "path")));
+        assertFalse(terms.contains("="));
+    }
+
+    @Test
+    void terms_ShouldSkipKeywordsOfTheLanguage() {
+        Set<String> java = CodeTokenizer.terms("public static void main(String[] args)", "java");
+        Set<String> plain = CodeTokenizer.terms("public static void main(String[] args)", null);
+
+        assertFalse(java.contains("public"));
+        assertFalse(java.contains("static"));
+        assertTrue(java.contains("main"));
+        assertTrue(plain.contains("public"));
+        // Aliases resolve to the same keyword list
+        assertFalse(CodeTokenizer.terms("def handler(event): pass", "py").contains("def"));
+    }
+
+    @Test
+    void terms_ShouldKeepOperatorRunsAndKebabChains() {
+        Set<String> terms = CodeTokenizer.terms("const f = (a) => a ?? fallback; x->y", "javascript");
+        assertTrue(terms.containsAll(List.of("=>", "??", "->", "fallback")));
+        assertFalse(terms.contains("a"));
+
+        Set<String> css = CodeTokenizer.terms(".btn { background-color: red; }", "css");
+        assertTrue(css.containsAll(List.of("backgroundcolor", "background", "color", "btn")));
+        // A spaced minus is subtraction, not a kebab chain
+        assertFalse(CodeTokenizer.terms("total - discount", null).contains("totaldiscount"));
+    }
+
+    @Test
+    void parseIdentifierQuery_ShouldNormalizeTerms() {
+        assertNull(CodeTokenizer.parseIdentifierQuery("parseJson"));
+        assertNull(CodeTokenizer.parseIdentifierQuery(null));
+        assertEquals(List.of("parsejson", "=>"), CodeTokenizer.parseIdentifierQuery("ident: parse_json  =>"));
+        assertEquals(List.of("backgroundcolor"), CodeTokenizer.parseIdentifierQuery("ident:background-color"));
+        assertTrue(CodeTokenizer.parseIdentifierQuery("ident:").isEmpty());
+    }
+}
@@ -0,0 +1,84 @@
+package com.syntaxvault.search;
+
+import org.junit.jupiter.api.Test;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MinHashTest {
+
+    private static final String ORIGINAL = String.join("\n",
+        "public static int binarySearch(int[] values, int key) {",
+        "    int low = 0, high = values.length - 1;",
+        "    while (low <= high) {",
+        "        int mid = (low + high) >>> 1;",
+        "        if (values[mid] < key) low = mid + 1;",
+        "        else if (values[mid] > key) high = mid - 1;",
+        "        else return mid;",
+        "    }",
+        "    return -(low + 1);",
+        "}");
+
+    @Test
+    void signature_ShouldIgnoreWhitespaceAndCase() {
+        String reformatted = ORIGINAL.replace("    ", "\t").replace(" = ", "=").replace("KEY", "key").toUpperCase();
+
+        assertArrayEquals(MinHash.signature(ORIGINAL), MinHash.signature(reformatted));
+        assertNull(MinHash.signature("  {} ;; "));
+        assertNull(MinHash.signature(null));
+    }
+
+    @Test
+    void similarity_ShouldEstimateJaccardOfShingles() {
+        String edited = ORIGINAL.replace("return mid;", "return mid; // found");
+        String unrelated = "SELECT name, count(*) FROM users u JOIN orders o ON o.user_id = u.id GROUP BY name";
+
+        double estimate = MinHash.similarity(MinHash.signature(ORIGINAL), MinHash.signature(edited));
+        assertEquals(jaccard(ORIGINAL, edited), estimate, 0.15);
+        assertTrue(estimate > 0.8);
+        assertTrue(MinHash.similarity(MinHash.signature(ORIGINAL), MinHash.signature(unrelated)) < 0.1);
+    }
+
+    @Test
+    void bandKeys_ShouldMatchForIdenticalSignaturesOnly() {
+        int[] signature = MinHash.signature(ORIGINAL);
+        int[] changed = signature.clone();
+        changed[0]++;
+
+        long[] keys = MinHash.bandKeys(signature);
+        long[] changedKeys = MinHash.bandKeys(changed);
+        assertEquals(MinHash.BANDS, keys.length);
+        assertNotEquals(keys[0], changedKeys[0]);
+        for (int band = 1; band < MinHash.BANDS; band++) {
+            assertEquals(keys[band], changedKeys[band]);
+        }
+    }
+
+    @Test
+    void toBytes_ShouldRoundTrip() {
+        int[] signature = MinHash.signature(ORIGINAL);
+
+        assertArrayEquals(signature, MinHash.fromBytes(MinHash.toBytes(signature)));
+        assertNull(MinHash.toBytes(null));
+        assertNull(MinHash.fromBytes(new byte[3]));
+    }
+
+    private static double jaccard(String a, String b) {
+        Set<List<String>> first = shingles(a);
+        Set<List<String>> second = shingles(b);
+        Set<List<String>> union = new HashSet<>(first);
+        union.addAll(second);
+        first.retainAll(second);
+        return (double) first.size() / union.size();
+    }
+
+    private static Set<List<String>> shingles(String content) {
+        List<String> tokens = CodeTokenizer.tokens(content.toLowerCase());
+        Set<List<String>> shingles = new HashSet<>();
+        for (int i = 0; i + MinHash.SHINGLE_SIZE <= tokens.size(); i++) {
+            shingles.add(tokens.subList(i, i + MinHash.SHINGLE_SIZE));
+        }
+        return shingles;
+    }
+}
@@ -0,0 +1,64 @@
+package com.syntaxvault.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnippetDuplicateIndexTest {
+
+    private static final String QUICKSORT = String.join("\n",
+        "def quicksort(items):",
+        "    if len(items) <= 1:",
+        "        return items",
+        "    pivot = items[len(items) // 2]",
+        "    left = [x for x in items if x < pivot]",
+        "    middle = [x for x in items if x == pivot]",
+        "    right = [x for x in items if x > pivot]",
+        "    return quicksort(left) + middle + quicksort(right)");
+
+    private SnippetDuplicateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SnippetDuplicateIndex();
+        index.index(1L, 10L, true, MinHash.signature(QUICKSORT));
+        index.index(2L, 20L, true, MinHash.signature(QUICKSORT.replace("    ", "  ")));
+        index.index(3L, 20L, false, MinHash.signature(QUICKSORT + "\nprint(quicksort([3, 1, 2]))"));
+        index.index(4L, 20L, true, MinHash.signature("SELECT * FROM orders WHERE total > 100 ORDER BY created_at"));
+    }
+
+    @Test
+    void findSimilar_ShouldReturnNearDuplicatesMostSimilarFirst() {
+        List<SnippetDuplicateIndex.Match> matches = index.findSimilar(MinHash.signature(QUICKSORT), 1L, 0.7, 20L, 10);
+
+        assertEquals(List.of(2L, 3L), matches.stream().map(SnippetDuplicateIndex.Match::id).toList());
+        assertEquals(1.0, matches.get(0).similarity());
+        assertTrue(matches.get(1).similarity() < 1.0);
+    }
+
+    @Test
+    void findSimilar_ShouldApplyVisibilityThresholdAndLimit() {
+        int[] probe = MinHash.signature(QUICKSORT);
+
+        // Snippet 3 is private to user 20
+        assertEquals(List.of(2L), ids(index.findSimilar(probe, 1L, 0.7, 10L, 10)));
+        assertEquals(List.of(1L, 2L), ids(index.findSimilar(probe, -1L, 1.0, 20L, 10)));
+        assertEquals(List.of(1L), ids(index.findSimilar(probe, -1L, 0.7, 20L, 1)));
+    }
+
+    @Test
+    void index_ShouldRebucketOnUpdateAndRemove() {
+        int[] probe = MinHash.signature(QUICKSORT);
+        index.index(2L, 20L, true, MinHash.signature("SELECT id FROM users"));
+        assertEquals(List.of(3L), ids(index.findSimilar(probe, 1L, 0.7, 20L, 10)));
+
+        index.remove(3L);
+        assertTrue(index.findSimilar(probe, 1L, 0.7, 20L, 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    private static List<Long> ids(List<SnippetDuplicateIndex.Match> matches) {
+        return matches.stream().map(SnippetDuplicateIndex.Match::id).toList();
+    }
+}
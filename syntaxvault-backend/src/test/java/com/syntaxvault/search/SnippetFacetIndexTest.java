@@ -0,0 +1,80 @@
+package com.syntaxvault.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnippetFacetIndexTest {
+
+    private SnippetFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SnippetFacetIndex();
+        index.index(1L, "python", Map.of(10L, "web", 11L, "cli"));
+        index.index(2L, "python", Map.of(10L, "web"));
+        index.index(3L, "sql", Map.of(12L, "reporting"));
+        index.index(4L, "go", Map.of(11L, "cli"));
+    }
+
+    private static SnippetFacetIndex.Bucket bucket(String value, int count) {
+        return new SnippetFacetIndex.Bucket(value, count);
+    }
+
+    @Test
+    void facets_ShouldCountOnlyMatches() {
+        SnippetFacetIndex.Facets facets = index.facets(RoaringBitmap.bitmapOf(1, 2, 4), 10);
+
+        assertEquals(List.of(bucket("python", 2), bucket("go", 1)), facets.languages());
+        assertEquals(List.of(bucket("cli", 2), bucket("web", 2)), facets.tags());
+    }
+
+    @Test
+    void facets_ShouldAgreeBetweenScanAndIntersection() {
+        // A handful of matches is walked; a thousand across few facet values is intersected
+        for (int id = 100; id < 1100; id++) {
+            index.index(id, id % 2 == 0 ? "java" : "kotlin", Map.of(20L + id % 3, "t" + id % 3));
+        }
+        RoaringBitmap few = RoaringBitmap.bitmapOf(100, 101, 102);
+        RoaringBitmap many = new RoaringBitmap();
+        many.add(1L, 1100L);
+
+        assertEquals(List.of(bucket("java", 2), bucket("kotlin", 1)), index.facets(few, 10).languages());
+        assertEquals(List.of(bucket("t0", 1), bucket("t1", 1), bucket("t2", 1)), index.facets(few, 10).tags());
+        SnippetFacetIndex.Facets all = index.facets(many, 2);
+        assertEquals(List.of(bucket("java", 500), bucket("kotlin", 500), bucket("python", 2), bucket("go", 1), bucket("sql", 1)),
+                     all.languages());
+        assertEquals(List.of(bucket("t1", 334), bucket("t0", 333)), all.tags());
+    }
+
+    @Test
+    void index_ShouldReplacePreviousFacetsOnUpdate() {
+        index.index(2L, "rust", Map.of(11L, "cli"));
+        index.remove(3L);
+
+        SnippetFacetIndex.Facets facets = index.facets(RoaringBitmap.bitmapOf(1, 2, 3), 10);
+        assertEquals(List.of(bucket("python", 1), bucket("rust", 1)), facets.languages());
+        assertEquals(List.of(bucket("cli", 2), bucket("web", 1)), facets.tags());
+    }
+
+    @Test
+    void renameAndRemoveTag_ShouldApplyToFacets() {
+        index.renameTag(10L, "webdev");
+        index.removeTag(11L);
+
+        assertEquals(List.of(bucket("webdev", 2)), index.facets(RoaringBitmap.bitmapOf(1, 2, 4), 10).tags());
+    }
+
+    @Test
+    void index_ShouldSkipIdsTheBitmapsCannotHold() {
+        long wide = Integer.MAX_VALUE + 1L;
+        index.index(wide, "python", Map.of(10L, "web"));
+        index.remove(wide);
+
+        assertFalse(SnippetFacetIndex.fits(wide));
+        assertEquals(List.of(bucket("python", 2), bucket("go", 1)), index.facets(RoaringBitmap.bitmapOf(1, 2, 4), 10).languages());
+    }
+}
@@ -0,0 +1,85 @@
+package com.syntaxvault.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnippetSearchIndexTest {
+
+    private SnippetSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SnippetSearchIndex();
+        index.index(1L, 10L, false, "Quick Sort", "def quicksort(arr): pass");
+        index.index(2L, 20L, true, "Binary search", "int search(int[] a, int key)");
+        index.index(3L, 20L, false, "Private notes", "SELECT * FROM sort_order");
+    }
+
+    @Test
+    void findCandidates_ShouldMatchCaseInsensitiveSubstrings() {
+        assertEquals(List.of(1L), index.findCandidates("QUICK", 10L));
+        assertEquals(List.of(2L), index.findCandidates("Int Search", 10L));
+        assertTrue(index.findCandidates("heapsort", 10L).isEmpty());
+    }
+
+    @Test
+    void findCandidates_ShouldApplyVisibility() {
+        // Snippet 1 is private to user 10, snippet 3 private to user 20
+        assertEquals(List.of(1L), index.findCandidates("sort", 10L));
+        assertEquals(List.of(3L), index.findCandidates("sort", 20L));
+        assertEquals(List.of(2L), index.findCandidates("search", 99L));
+    }
+
+    @Test
+    void findCandidates_ShouldReturnAllVisibleForShortKeywords() {
+        assertEquals(List.of(1L, 2L), index.findCandidates("", 10L));
+        assertEquals(List.of(2L, 3L), index.findCandidates("so", 20L));
+        assertEquals(List.of(2L), index.findCandidates(null, 99L));
+    }
+
+    @Test
+    void index_ShouldReplacePreviousTrigramsOnUpdate() {
+        index.index(1L, 10L, true, "Merge sort", "def mergesort(arr): pass");
+
+        assertTrue(index.findCandidates("quick", 10L).isEmpty());
+        assertEquals(List.of(1L, 2L), index.findCandidates("", 99L));
+        assertEquals(List.of(1L), index.findCandidates("merge", 99L));
+    }
+
+    @Test
+    void remove_ShouldDropSnippetFromResults() {
+        index.remove(2L);
+
+        assertTrue(index.findCandidates("search", 20L).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void findIdentifierCandidates_ShouldMatchWholeIdentifiersOnly() {
+        index.index(4L, 10L, true, "Parser", "JsonNode node = parseJson(body);", "java");
+        index.index(5L, 10L, true, "Notes", "the json is parsed elsewhere", "java");
+
+        assertEquals(List.of(4L), index.findIdentifierCandidates(List.of("parsejson"), 99L));
+        assertEquals(List.of(4L, 5L), index.findIdentifierCandidates(List.of("json"), 99L));
+        assertEquals(List.of(4L), index.findIdentifierCandidates(List.of("json", "node"), 99L));
+        // "parse" is only a substring of "parsed", never one of its identifiers
+        assertEquals(List.of(4L), index.findIdentifierCandidates(List.of("parse"), 99L));
+        assertTrue(index.findIdentifierCandidates(List.of("quick"), 20L).isEmpty());
+    }
+
+    @Test
+    void findIdentifierCandidates_ShouldUnlinkOnUpdateAndRemove() {
+        index.index(4L, 10L, false, "Parser", "parse_json(body)", "python");
+        assertEquals(List.of(4L), index.findIdentifierCandidates(List.of("parsejson"), 10L));
+        assertTrue(index.findIdentifierCandidates(List.of("parsejson"), 99L).isEmpty());
+
+        index.index(4L, 10L, false, "Parser", "load_yaml(body)", "python");
+        assertTrue(index.findIdentifierCandidates(List.of("parsejson"), 10L).isEmpty());
+        assertEquals(List.of(4L), index.findIdentifierCandidates(List.of("loadyaml"), 10L));
+
+        index.remove(4L);
+        assertTrue(index.findIdentifierCandidates(List.of("loadyaml"), 10L).isEmpty());
+    }
+}
@@ -0,0 +1,109 @@
+package com.syntaxvault.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TagPrefixIndexTest {
+
+    private TagPrefixIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TagPrefixIndex();
+        index.put(1L, "Spring");
+        index.put(2L, "spring-boot");
+        index.put(3L, "sql");
+        index.put(4L, "Python");
+        index.setUsage(Map.of(1L, 5, 2L, 40, 3L, 12));
+    }
+
+    private static List<String> names(List<TagPrefixIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(TagPrefixIndex.Suggestion::name).toList();
+    }
+
+    @Test
+    void suggest_ShouldRankPrefixMatchesByUsage() {
+        assertEquals(List.of("spring-boot", "sql", "Spring"), names(index.suggest("S", 10)));
+        assertEquals(List.of("spring-boot", "Spring"), names(index.suggest("spr", 10)));
+        assertEquals(List.of("spring-boot"), names(index.suggest("s", 1)));
+        assertTrue(index.suggest("java", 10).isEmpty());
+        assertTrue(index.suggest(" ", 10).isEmpty());
+    }
+
+    @Test
+    void suggest_ShouldMatchNameSegmentsOnce() {
+        assertEquals(List.of("spring-boot"), names(index.suggest("boot", 10)));
+        assertEquals(40, index.suggest("boot", 10).get(0).usage());
+    }
+
+    @Test
+    void put_ShouldReplaceKeysOnRename() {
+        index.put(4L, "py-utils");
+
+        assertTrue(index.suggest("python", 10).isEmpty());
+        assertEquals(List.of("py-utils"), names(index.suggest("util", 10)));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void remove_ShouldDropTagFromSuggestions() {
+        index.remove(2L);
+
+        assertEquals(List.of("Spring"), names(index.suggest("spr", 10)));
+        assertTrue(index.suggest("boot", 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void relink_ShouldReturnDroppedAndAddedTags() {
+        assertEquals(Set.of(1L, 2L), index.relink(10L, new long[] {1L, 2L}));
+        assertEquals(Set.of(1L, 2L, 3L), index.relink(10L, new long[] {2L, 3L}));
+        assertEquals(Set.of(2L, 3L), index.relink(10L, new long[0]));
+        assertEquals(Set.of(), index.relink(10L, new long[0]));
+        assertEquals(Set.of(4L), index.relink(1L << 40, new long[] {4L}));
+    }
+
+    @Test
+    void setUsage_ShouldOnlyChangeGivenTags() {
+        index.setUsage(Map.of(1L, 50, 3L, 0));
+
+        assertEquals(List.of("Spring", "spring-boot", "sql"), names(index.suggest("s", 10)));
+        assertEquals(40, index.suggest("boot", 10).get(0).usage());
+    }
+
+    @Test
+    void incrementalUpdates_ShouldMatchBruteForce() {
+        Random random = new Random(7);
+        String[] words = {"java", "jav", "js", "spring", "boot", "sql", "py", "go"};
+        Map<Long, String> names = new HashMap<>();
+        index = new TagPrefixIndex();
+
+        for (int step = 0; step < 2_000; step++) {
+            long id = random.nextInt(60);
+            if (random.nextInt(5) == 0) {
+                index.remove(id);
+                names.remove(id);
+            } else {
+                String name = words[random.nextInt(words.length)] + "-" + words[random.nextInt(words.length)] + random.nextInt(3);
+                index.put(id, name);
+                names.put(id, name);
+            }
+        }
+
+        for (String prefix : new String[] {"j", "ja", "java-", "s", "boot", "go-py", "x"}) {
+            List<String> expected = names.values().stream()
+                .filter(name -> name.startsWith(prefix) || name.contains("-" + prefix))
+                .sorted((a, b) -> a.length() != b.length() ? Integer.compare(a.length(), b.length()) : a.compareTo(b))
+                .collect(Collectors.toList());
+            assertEquals(expected, names(index.suggest(prefix, 1_000)), prefix);
+        }
+        assertEquals(names.size(), index.size());
+    }
+}
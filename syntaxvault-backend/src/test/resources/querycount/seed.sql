@@ -0,0 +1,62 @@
+-- Dataset for the query-count tests. Big enough that a per-row query in any
+-- endpoint blows well past its bound: two users, each with a three-level
+-- folder tree of 21 folders, 60 tagged snippets and 6 collections of 10
+-- snippets. Every third snippet and every other collection is public.
+
+INSERT INTO Users (id, username, email, password_hash) VALUES
+    (1, 'alice', 'alice@example.com', '$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z6dYhqX3h1o6ZJ0ZWVt6bq1e'),
+    (2, 'bob', 'bob@example.com', '$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z6dYhqX3h1o6ZJ0ZWVt6bq1e');
+
+INSERT INTO User_Roles (user_id, role) VALUES (1, 'ROLE_USER'), (2, 'ROLE_USER');
+
+INSERT INTO Tags (id, name)
+SELECT t, 'tag-' || t FROM generate_series(1, 30) AS t;
+
+-- Folder ids per user: roots base+1..3, children base+4..9, leaves base+10..21
+INSERT INTO Folders (id, name, parent_id, user_id, path)
+SELECT (u - 1) * 21 + r, 'root-' || r, NULL, u, '/root-' || r
+FROM generate_series(1, 2) AS u, generate_series(1, 3) AS r;
+
+INSERT INTO Folders (id, name, parent_id, user_id, path)
+SELECT (u - 1) * 21 + 3 + (r - 1) * 2 + c, 'child-' || c, (u - 1) * 21 + r, u,
+       '/root-' || r || '/child-' || c
+FROM generate_series(1, 2) AS u, generate_series(1, 3) AS r, generate_series(1, 2) AS c;
+
+INSERT INTO Folders (id, name, parent_id, user_id, path)
+SELECT (u - 1) * 21 + 9 + ((r - 1) * 2 + c - 1) * 2 + l, 'leaf-' || l, (u - 1) * 21 + 3 + (r - 1) * 2 + c, u,
+       '/root-' || r || '/child-' || c || '/leaf-' || l
+FROM generate_series(1, 2) AS u, generate_series(1, 3) AS r, generate_series(1, 2) AS c, generate_series(1, 2) AS l;
+
+INSERT INTO Snippets (id, title, description, content, language, creation_date, last_modified_date, user_id, is_public, folder_id)
+SELECT s,
+       'quick sort ' || s,
+       'snippet ' || s,
+       'def quick_sort(items): return sorted(items)  # ' || s,
+       (ARRAY['java', 'python', 'sql'])[s % 3 + 1],
+       now() - s * interval '1 minute',
+       now() - s * interval '1 minute',
+       (s - 1) / 60 + 1,
+       s % 3 = 0,
+       ((s - 1) / 60) * 21 + s % 21 + 1
+FROM generate_series(1, 120) AS s;
+
+INSERT INTO Snippet_Tags (snippet_id, tag_id)
+SELECT s, t
+FROM generate_series(1, 120) AS s,
+     LATERAL (VALUES (s % 30 + 1), ((s * 7) % 30 + 1), ((s * 13) % 30 + 1)) AS tags(t)
+ON CONFLICT DO NOTHING;
+
+INSERT INTO Collections (id, name, user_id, is_public)
+SELECT c, 'collection-' || c, (c - 1) / 6 + 1, c % 2 = 0
+FROM generate_series(1, 12) AS c;
+
+INSERT INTO Snippet_Collections (snippet_id, collection_id)
+SELECT ((c - 1) / 6) * 60 + ((c - 1) % 6) * 10 + k, c
+FROM generate_series(1, 12) AS c, generate_series(1, 10) AS k;
+
+SELECT setval(pg_get_serial_sequence('users', 'id'), 2);
+SELECT setval(pg_get_serial_sequence('tags', 'id'), 30);
+SELECT setval(pg_get_serial_sequence('folders', 'id'), 42);
+SELECT setval(pg_get_serial_sequence('collections', 'id'), 12);
+-- Hibernate hands out snippet ids in blocks below each sequence value (pooled optimizer)
+SELECT setval('snippets_id_seq', 170);